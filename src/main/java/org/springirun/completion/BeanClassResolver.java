@@ -0,0 +1,135 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springirun.completion;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.RecursionGuard;
+import com.intellij.openapi.util.RecursionManager;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.ClassUtil;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.psi.xml.XmlTag;
+import com.intellij.util.xml.DomElement;
+import com.intellij.util.xml.DomManager;
+import com.intellij.util.xml.DomUtil;
+import com.intellij.util.xml.GenericAttributeValue;
+import org.jetbrains.annotations.NotNull;
+import org.springirun.model.Bean;
+
+import java.util.Optional;
+
+import static org.springirun.completion.SpringirunCompletionUtils.*;
+
+/**
+ * Memoized bean class resolving. Resolved classes are cached per bean until the next PSI modification, so
+ * completion providers and references share one resolution of {@code parent} and {@code factory-bean} chains.
+ * Referenced beans are found through bean name index and read through stub-backed DOM of declaring files.
+ *
+ * @author Andrii Borovyk
+ */
+public class BeanClassResolver {
+
+  private static final Key<CachedValue<PsiClass>> OWNER_CLASS_KEY = Key.create("springirun.beanOwnerClass");
+  private static final Key<CachedValue<PsiClass>> BEAN_CLASS_KEY = Key.create("springirun.beanClass");
+
+  private static final RecursionGuard<Bean> OWNER_CLASS_GUARD =
+      RecursionManager.createGuard("springirun.beanOwnerClass");
+  private static final RecursionGuard<Bean> BEAN_CLASS_GUARD =
+      RecursionManager.createGuard("springirun.beanClass");
+
+  /**
+   * Class declaring bean factory method: class of {@code factory-bean} if any, otherwise bean own or inherited
+   * {@code class}.
+   */
+  public static PsiClass resolveOwnerClass(@NotNull XmlTag beanTag) {
+    Bean bean = getBean(beanTag);
+    return bean != null ? resolveOwnerClass(bean) : null;
+  }
+
+  /**
+   * Class of bean instance, taking {@code factory-method} return type into account.
+   */
+  public static PsiClass resolveBeanClass(@NotNull XmlTag beanTag) {
+    Bean bean = getBean(beanTag);
+    return bean != null ? resolveBeanClass(bean) : null;
+  }
+
+  public static PsiClass resolveOwnerClass(@NotNull Bean bean) {
+    Project project = bean.getManager().getProject();
+    return CachedValuesManager.getManager(project).getCachedValue(bean, OWNER_CLASS_KEY,
+        () -> CachedValueProvider.Result.create(
+            OWNER_CLASS_GUARD.doPreventingRecursion(bean, false, () -> computeOwnerClass(bean)),
+            PsiModificationTracker.MODIFICATION_COUNT), false);
+  }
+
+  public static PsiClass resolveBeanClass(@NotNull Bean bean) {
+    Project project = bean.getManager().getProject();
+    return CachedValuesManager.getManager(project).getCachedValue(bean, BEAN_CLASS_KEY,
+        () -> CachedValueProvider.Result.create(
+            BEAN_CLASS_GUARD.doPreventingRecursion(bean, false, () -> computeBeanClass(bean)),
+            PsiModificationTracker.MODIFICATION_COUNT), false);
+  }
+
+  private static PsiClass computeOwnerClass(Bean bean) {
+    if (bean.getFactoryBean().getStringValue() != null) {
+      return resolveReferencedBean(bean, bean.getFactoryBean()).map(BeanClassResolver::resolveBeanClass)
+          .orElse(null);
+    }
+    String className = bean.getClazz().getStringValue();
+    if (className != null) {
+      return findClass(bean, className.trim());
+    }
+    return resolveReferencedBean(bean, bean.getParentBean()).map(BeanClassResolver::resolveOwnerClass)
+        .orElse(null);
+  }
+
+  private static PsiClass computeBeanClass(Bean bean) {
+    String factoryMethod = bean.getFactoryMethod().getStringValue();
+    if (factoryMethod == null && bean.getClazz().getStringValue() == null
+        && bean.getFactoryBean().getStringValue() == null && bean.getParentBean().getStringValue() != null) {
+      return resolveReferencedBean(bean, bean.getParentBean()).map(BeanClassResolver::resolveBeanClass)
+          .orElse(null);
+    }
+    PsiClass ownerClass = resolveOwnerClass(bean);
+    return factoryMethod != null ? resolveMethodReturnType(ownerClass, factoryMethod) : ownerClass;
+  }
+
+  private static Optional<Bean> resolveReferencedBean(Bean bean, GenericAttributeValue<String> attribute) {
+    XmlFile xmlFile = DomUtil.getFile(bean);
+    Project project = xmlFile.getProject();
+    return Optional.ofNullable(attribute.getStringValue())
+        .flatMap(name -> resolveBeanDeclaration(xmlFile, name))
+        .map(declaration -> declaration.getBean(project));
+  }
+
+  private static PsiClass findClass(Bean bean, String className) {
+    XmlFile xmlFile = DomUtil.getFile(bean);
+    return ClassUtil.findPsiClass(PsiManager.getInstance(xmlFile.getProject()), className, null, true,
+        xmlFile.getResolveScope());
+  }
+
+  private static Bean getBean(XmlTag beanTag) {
+    DomElement domElement = DomManager.getDomManager(beanTag.getProject()).getDomElement(beanTag);
+    return domElement instanceof Bean ? (Bean) domElement : null;
+  }
+}
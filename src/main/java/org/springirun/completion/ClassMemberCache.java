@@ -0,0 +1,121 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springirun.completion;
+
+import com.intellij.openapi.util.Key;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiMethod;
+import com.intellij.psi.PsiType;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.util.containers.MultiMap;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.springirun.completion.SpringirunCompletionUtils.*;
+
+/**
+ * Per class tables of members used by bean completion and references. Tables are cached on PsiClass and dropped
+ * on any java structure modification.
+ *
+ * @author Andrii Borovyk
+ */
+public class ClassMemberCache {
+
+  private static final Key<CachedValue<Map<String, BeanProperty>>> PROPERTIES_KEY =
+      Key.create("springirun.beanProperties");
+  private static final Key<CachedValue<MultiMap<String, PsiMethod>>> METHODS_KEY =
+      Key.create("springirun.methodsByName");
+
+  /**
+   * Bean property, writable through setter method.
+   */
+  public static class BeanProperty {
+
+    private final PsiMethod setter;
+
+    private final PsiType type;
+
+    BeanProperty(PsiMethod setter) {
+      this.setter = setter;
+      this.type = setter.getParameterList().getParameters()[0].getType();
+    }
+
+    public PsiMethod getSetter() {
+      return setter;
+    }
+
+    public PsiType getType() {
+      return type;
+    }
+  }
+
+  /**
+   * Writable properties of class and all its supers, keyed by property name.
+   */
+  public static Map<String, BeanProperty> getProperties(@NotNull PsiClass psiClass) {
+    return CachedValuesManager.getCachedValue(psiClass, PROPERTIES_KEY,
+        () -> CachedValueProvider.Result.create(computeProperties(psiClass),
+            PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT));
+  }
+
+  public static BeanProperty findProperty(@NotNull PsiClass psiClass, @NotNull String propertyName) {
+    if (propertyName.isEmpty()) {
+      return null;
+    }
+    return getProperties(psiClass)
+        .get(Character.toLowerCase(propertyName.charAt(0)) + propertyName.substring(1));
+  }
+
+  /**
+   * Methods of class and all its supers with given name, own methods go first.
+   */
+  public static Collection<PsiMethod> findMethodsByName(@NotNull PsiClass psiClass, @NotNull String name) {
+    return CachedValuesManager.getCachedValue(psiClass, METHODS_KEY,
+        () -> CachedValueProvider.Result.create(computeMethods(psiClass),
+            PsiModificationTracker.JAVA_STRUCTURE_MODIFICATION_COUNT)).get(name);
+  }
+
+  private static MultiMap<String, PsiMethod> computeMethods(PsiClass psiClass) {
+    MultiMap<String, PsiMethod> methods = MultiMap.createLinked();
+    for (PsiMethod psiMethod : psiClass.getAllMethods()) {
+      methods.putValue(psiMethod.getName(), psiMethod);
+    }
+    return methods;
+  }
+
+  private static Map<String, BeanProperty> computeProperties(PsiClass psiClass) {
+    Map<String, BeanProperty> properties = new LinkedHashMap<>();
+    for (PsiMethod psiMethod : psiClass.getAllMethods()) {
+      String name = psiMethod.getName();
+      if (name.length() > SET.length() && setter("").test(psiMethod)) {
+        properties.putIfAbsent(toPropertyName(name), new BeanProperty(psiMethod));
+      }
+    }
+    return Collections.unmodifiableMap(properties);
+  }
+
+  private static String toPropertyName(String setterName) {
+    return Character.toLowerCase(setterName.charAt(SET.length())) + setterName.substring(SET.length() + 1);
+  }
+}
@@ -30,13 +30,11 @@ import com.intellij.psi.xml.XmlElement;
 import com.intellij.psi.xml.XmlTag;
 import com.intellij.util.PlatformIcons;
 import com.intellij.util.ProcessingContext;
-import com.intellij.util.xml.GenericAttributeValue;
 import org.jetbrains.annotations.NotNull;
-import org.springirun.model.Alias;
-import org.springirun.model.Bean;
-import org.springirun.model.Beans;
+import org.springirun.index.BeanIndexEntry;
 
 import java.util.Arrays;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.springirun.completion.SpringirunCompletionUtils.*;
@@ -214,21 +212,15 @@ public class SpringirunCompletionContributor extends CompletionContributor {
               .map(PsiElement::getParent).map(PsiElement::getParent).filter(XmlAttribute.class::isInstance)
               .map(XmlAttribute.class::cast);
 
-          final Optional<Beans> beans = SpringirunCompletionUtils.getDocumentRoot(xmlAttribute);
-          if (beans.isPresent()) {
-            for (Bean bean : beans.get().getBeans()) {
-              Optional.ofNullable(bean).map(Bean::getId).map(GenericAttributeValue::getValue)
-                  .filter(v -> v.startsWith(prefix)).map(LookupElementBuilder::create)
-                  .map(e -> e.withIcon(SpringirunCompletionUtils.BEAN_ICON)).ifPresent(result::addElement);
-
-              Optional.ofNullable(bean).map(Bean::getName).map(GenericAttributeValue::getValue)
-                  .filter(v -> v.startsWith(prefix)).map(LookupElementBuilder::create)
-                  .map(e -> e.withIcon(SpringirunCompletionUtils.BEAN_ICON)).ifPresent(result::addElement);
-            }
-            for (Alias alias : beans.get().getAliases()) {
-              Optional.ofNullable(alias).map(Alias::getAlias).map(GenericAttributeValue::getValue)
-                  .filter(v -> v.startsWith(prefix)).map(LookupElementBuilder::create)
-                  .map(e -> e.withIcon(SpringirunCompletionUtils.BEAN_ALIAS_ICON)).ifPresent(result::addElement);
+          if (!xmlAttribute.isPresent()) {
+            return;
+          }
+          Map<String, BeanIndexEntry> names = SpringirunCompletionUtils.getVisibleBeanNames(xmlAttribute.get());
+          for (Map.Entry<String, BeanIndexEntry> name : names.entrySet()) {
+            if (name.getKey().startsWith(prefix)) {
+              result.addElement(LookupElementBuilder.create(name.getKey()).withIcon(
+                  name.getValue().isAlias() ? SpringirunCompletionUtils.BEAN_ALIAS_ICON :
+                      SpringirunCompletionUtils.BEAN_ICON));
             }
           }
         }
@@ -17,25 +17,35 @@
 package org.springirun.completion;
 
 import com.intellij.openapi.project.Project;
-import com.intellij.openapi.roots.OrderEnumerator;
 import com.intellij.openapi.util.Condition;
 import com.intellij.openapi.util.IconLoader;
+import com.intellij.openapi.util.text.StringUtil;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.*;
+import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.psi.xml.XmlAttribute;
+import com.intellij.psi.xml.XmlFile;
 import com.intellij.psi.xml.XmlTag;
+import com.intellij.util.containers.ContainerUtil;
 import com.intellij.util.xml.DomManager;
-import com.intellij.util.xml.GenericAttributeValue;
 import org.apache.velocity.util.StringUtils;
 import org.jetbrains.annotations.NotNull;
-import org.springirun.model.Alias;
-import org.springirun.model.Bean;
+import org.springirun.completion.resolving.BeanResolvingStrategy;
+import org.springirun.completion.resolving.ContextBeanResolvingStrategy;
+import org.springirun.index.BeanDeclaration;
+import org.springirun.index.BeanIndexEntry;
+import org.springirun.index.BeanNameIndex;
 import org.springirun.model.Beans;
+import org.springirun.search.ImportGraph;
+import org.springirun.search.ResourceScopes;
 
 import javax.swing.*;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -126,35 +136,61 @@ public class SpringirunCompletionUtils {
         .startsWith(SET + (prefix.isEmpty() ? "" : StringUtils.capitalizeFirstLetter(prefix))));
   }
 
-  private static Predicate<Bean> withBeanId(String id) {
-    return (b -> b.getId() != null && id.equals(b.getId().getValue()));
-  }
-
-  private static Predicate<Bean> withBeanName(String id) {
-    return (b -> b.getId() != null && id.equals(b.getId().getValue()));
+  /**
+   * Files which beans are visible from given element: containing file and all files imported by it.
+   */
+  public static Collection<VirtualFile> getBeanSearchFiles(@NotNull PsiElement psiElement) {
+    PsiFile psiFile = Optional.ofNullable(psiElement.getContainingFile()).map(PsiFile::getOriginalFile)
+        .orElse(null);
+    if (psiFile instanceof XmlFile) {
+      return ImportGraph.getInstance(psiElement.getProject()).getImportClosure((XmlFile) psiFile);
+    }
+    return Optional.ofNullable(psiFile).map(PsiFile::getVirtualFile).map(Collections::singletonList)
+        .orElseGet(Collections::emptyList);
   }
 
-  private static Predicate<Alias> withAliasName(String id) {
-    return (a -> a.getName() != null && id.equals(a.getName().getValue()));
+  /**
+   * Resolves bean visible from given element: within contexts containing element file if there are any, otherwise
+   * within the file and its imports.
+   */
+  public static Optional<XmlTag> resolveBeanTag(@NotNull PsiElement psiElement,
+      @NotNull String name) {
+    Project project = psiElement.getProject();
+    return resolveBeanDeclaration(psiElement, name).map(declaration -> declaration.getTag(project));
   }
 
-  public static Optional<Bean> resolveBeanByName(@NotNull Optional<Beans> beans,
+  /**
+   * Resolves declaration of bean visible from given element, the same way as {@link #resolveBeanTag} does, without
+   * parsing files declaring it.
+   */
+  public static Optional<BeanDeclaration> resolveBeanDeclaration(@NotNull PsiElement psiElement,
       @NotNull String name) {
-    return beans.map(Beans::getBeans).map(
-        list -> list.stream().filter(withBeanId(name).or(withBeanName(name))).findAny()
-            .orElse(null));
+    Project project = psiElement.getProject();
+    VirtualFile file = getOriginalVirtualFile(psiElement);
+    BeanResolvingStrategy strategy = ContextBeanResolvingStrategy.getInstance(project);
+    if (file != null && strategy.isContextFile(file)) {
+      return Optional.ofNullable(strategy.resolveBeanDeclaration(name, file));
+    }
+    return BeanNameIndex.findBeanDeclaration(project, name,
+        GlobalSearchScope.filesScope(project, getBeanSearchFiles(psiElement)));
   }
 
-  public static Optional<Alias> resolveAliasByName(@NotNull Optional<Beans> beans,
-      @NotNull String name) {
-    return beans.map(Beans::getAliases)
-        .map(list -> list.stream().filter(withAliasName(name)).findAny().orElse(null));
+  /**
+   * Ids, names and aliases of all beans visible from given element.
+   */
+  public static Map<String, BeanIndexEntry> getVisibleBeanNames(@NotNull PsiElement psiElement) {
+    Project project = psiElement.getProject();
+    VirtualFile file = getOriginalVirtualFile(psiElement);
+    BeanResolvingStrategy strategy = ContextBeanResolvingStrategy.getInstance(project);
+    if (file != null && strategy.isContextFile(file)) {
+      return strategy.getBeanNames(file);
+    }
+    return BeanNameIndex.getBeanNames(project, getBeanSearchFiles(psiElement));
   }
 
-  public static Optional<Bean> resolveBeanByAlias(@NotNull Optional<Beans> beans,
-      @NotNull String name) {
-    return resolveAliasByName(beans, name).map(Alias::getAlias).map(GenericAttributeValue::getValue)
-        .map(id -> resolveBeanByName(beans, id).orElse(null));
+  private static VirtualFile getOriginalVirtualFile(PsiElement psiElement) {
+    return Optional.ofNullable(psiElement.getContainingFile()).map(PsiFile::getOriginalFile)
+        .map(PsiFile::getVirtualFile).orElse(null);
   }
 
   public static List<String> resolveSetters(PsiClass psiClass, String namePrefix) {
@@ -169,13 +205,12 @@ public class SpringirunCompletionUtils {
 
   public static List<String> resolveSetters(PsiClass psiClass, String namePrefix,
       String namespace) {
-    return Arrays.stream(psiClass.getAllMethods()).filter(setter(namePrefix))
-        .map(PsiMethod::getName).map(m -> new StringBuilder(namespace)
-            .append(String.valueOf(new char[] {m.charAt(3)}).toLowerCase()).append(m.substring(4))
-            .toString()).collect(Collectors.toList());
+    String capitalizedPrefix = StringUtil.capitalize(namePrefix);
+    return ClassMemberCache.getProperties(psiClass).keySet().stream()
+        .filter(p -> StringUtil.capitalize(p).startsWith(capitalizedPrefix)).map(p -> namespace + p)
+        .collect(Collectors.toList());
   }
 
-  //TODO: resolve all beans in all files hierarchy, instead of just current one
   public static Optional<Beans> getDocumentRoot(Optional<? extends PsiElement> psiElement) {
     return psiElement.map(psi -> PsiTreeUtil.findFirstParent(psi, tagWithName(BEANS)))
         .filter(XmlTag.class::isInstance).map(XmlTag.class::cast)
@@ -189,39 +224,14 @@ public class SpringirunCompletionUtils {
         .filter(XmlTag.class::isInstance).map(XmlTag.class::cast);
   }
 
-  public static Optional<PsiClass> resolveBeanClassByName(Optional<Beans> beans, String name) {
-    return resolveBeanByName(beans, name).map(Bean::getXmlElement).map(XmlTag.class::isInstance)
-        .map(XmlTag.class::cast).map(t -> t.getAttribute(CLASS))
-        .map(SpringirunCompletionUtils::resolvePsiClass);
-  }
-
-  public static Optional<PsiClass> resolveBeanClassByAlias(Optional<Beans> beans, String alias) {
-    return resolveBeanByAlias(beans, alias).map(Bean::getXmlElement).map(XmlTag.class::isInstance)
-        .map(XmlTag.class::cast).map(t -> t.getAttribute(CLASS))
-        .map(SpringirunCompletionUtils::resolvePsiClass);
-  }
-
-
   public static PsiMethod resolveMethod(@NotNull PsiClass psiClass, String methodName) {
 
-    if (psiClass == null) {
+    if (psiClass == null || methodName == null) {
       return null;
     }
-    StringBuilder mName = new StringBuilder();
-    if (methodName.endsWith(_REF)) {
-      mName.append(methodName.substring(0, methodName.indexOf(_REF)));
-    } else {
-      mName.append(methodName);
-    }
-
-
-    PsiMethod[] methods = psiClass.getAllMethods();
-    for (PsiMethod method : methods) {
-      if (method.getName().equals(mName.toString())) {
-        return method;
-      }
-    }
-    return null;
+    String name = methodName.endsWith(_REF) ? methodName.substring(0, methodName.indexOf(_REF)) :
+        methodName;
+    return ContainerUtil.getFirstItem(ClassMemberCache.findMethodsByName(psiClass, name));
   }
 
   public static PsiParameter resolveArgumentByName(PsiClass psiClass, String argumentName,
@@ -238,13 +248,14 @@ public class SpringirunCompletionUtils {
 
   }
 
-  public static PsiMethod resolveSetterMethod(PsiClass psiClass, String methodName) {
-    StringBuilder mName = new StringBuilder(SET);
-    if (methodName != null && methodName.length() > 0) {
-      mName.append(String.copyValueOf(new char[] {methodName.charAt(0)}).toUpperCase());
-      mName.append(methodName.substring(1));
+  public static PsiMethod resolveSetterMethod(PsiClass psiClass, String propertyName) {
+    if (psiClass == null || propertyName == null || propertyName.isEmpty()) {
+      return null;
     }
-    return resolveMethod(psiClass, mName.toString());
+    String name = propertyName.endsWith(_REF) ?
+        propertyName.substring(0, propertyName.length() - _REF.length()) : propertyName;
+    return Optional.ofNullable(ClassMemberCache.findProperty(psiClass, name))
+        .map(ClassMemberCache.BeanProperty::getSetter).orElse(null);
   }
 
 
@@ -253,41 +264,12 @@ public class SpringirunCompletionUtils {
   }
 
 
-  private static PsiClass nestedBeanClassResolving(XmlAttribute parent,
-      XmlAttribute factoryMethodAttribute) {
-    Optional<Beans> beans = getDocumentRoot(Optional.ofNullable(parent));
-    Optional<String> v = Optional.ofNullable(parent).map(XmlAttribute::getValue);
-
-    if (v.isPresent()) {
-      return or(() -> resolveBeanClassByName(beans, v.get()),
-          () -> resolveBeanClassByAlias(beans, v.get()))
-          .map(psi -> resolveMethodReturnTypeByFullName(psi, factoryMethodAttribute)).orElse(null);
-    }
-    return null;
-  }
-
   public static PsiClass resolveBean(XmlTag beanTag, Optional<XmlAttribute> attribute) {
-    XmlAttribute classAttribute = beanTag.getAttribute(CLASS);
-    XmlAttribute factoryBean = beanTag.getAttribute(FACTORY_BEAN);
-    XmlAttribute factoryMethodAttribute = beanTag.getAttribute(FACTORY_METHOD);
-    XmlAttribute parentAttribute = beanTag.getAttribute(PARENT);
-
-    if (classAttribute != null) {
-      if (attribute.isPresent() && attribute.get().getLocalName().equals(FACTORY_METHOD)) {
-        //do not resolve bean as factory method type, if we are trying to resolve factory-method itself
-        factoryMethodAttribute = null;
-      }
-      return resolveMethodReturnTypeByFullName(resolvePsiClass(classAttribute),
-          factoryMethodAttribute);
+    if (attribute.isPresent() && FACTORY_METHOD.equals(attribute.get().getLocalName())) {
+      //do not resolve bean as factory method type, if we are trying to resolve factory-method itself
+      return BeanClassResolver.resolveOwnerClass(beanTag);
     }
-    if (factoryBean != null) {
-      return nestedBeanClassResolving(factoryBean, factoryMethodAttribute);
-    }
-    if (parentAttribute != null) {
-      return nestedBeanClassResolving(parentAttribute, factoryMethodAttribute);
-    }
-
-    return null;
+    return BeanClassResolver.resolveBeanClass(beanTag);
   }
 
   public static PsiClass resolveMethodReturnTypeByFullName(PsiClass psiClass,
@@ -295,16 +277,17 @@ public class SpringirunCompletionUtils {
     if (methodAttribute == null) {
       return psiClass;
     }
-    PsiMethod[] methods = psiClass.getAllMethods();
-    for (PsiMethod method : methods) {
-      if (method.getName().equals(methodAttribute.getValue())) {
-        PsiType methodReturnType = method.getReturnType();
-        if (methodReturnType instanceof PsiClassType) {
-          return ((PsiClassType) methodReturnType).resolve();
-        } else {
-          return null;
-        }
-      }
+    return resolveMethodReturnType(psiClass, methodAttribute.getValue());
+  }
+
+  public static PsiClass resolveMethodReturnType(PsiClass psiClass, String methodName) {
+    if (psiClass == null || methodName == null) {
+      return null;
+    }
+    PsiMethod method =
+        ContainerUtil.getFirstItem(ClassMemberCache.findMethodsByName(psiClass, methodName));
+    if (method != null && method.getReturnType() instanceof PsiClassType) {
+      return ((PsiClassType) method.getReturnType()).resolve();
     }
     return null;
   }
@@ -335,7 +318,7 @@ public class SpringirunCompletionUtils {
   }
 
   public static PsiFile resolvePsiFile(Project project, String contextPath) {
-    for (VirtualFile fileOrDir : OrderEnumerator.orderEntries(project).getAllSourceRoots()) {
+    for (VirtualFile fileOrDir : ResourceScopes.getSourceRoots(project)) {
       VirtualFile virtualFile = fileOrDir.findFileByRelativePath(contextPath);
       if (virtualFile != null && !virtualFile.isDirectory()) {
         return resolvePsiFile(project, virtualFile);
@@ -15,41 +15,429 @@
  */
 package org.springirun.completion.resolving;
 
+import com.intellij.openapi.progress.ProcessCanceledException;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
 import com.intellij.psi.xml.XmlFile;
 import com.intellij.psi.xml.XmlTag;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.indexing.FileBasedIndex;
+import org.springirun.index.BeanDeclaration;
+import org.springirun.index.BeanIndexEntry;
+import org.springirun.index.BeanNameIndex;
 import org.springirun.tool.ContextContainerEntity;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
- * Information about class functionality.
+ * Resolves beans within contexts. Each context gets merged table of bean names declared by its member files, so
+ * lookup of a bean in context is a single hash lookup per context level. Child contexts see beans of their parent
+ * contexts through the parent table itself, which is never copied. All tables are rebuilt when contexts, file set or
+ * roots change; when imports change, only contexts containing changed files collect their member files again, and
+ * declarations of changed member files are replaced in place on next lookup. Tables are updated by one thread at a
+ * time, concurrent lookups keep using previously published tables meanwhile. Update is cancellable.
  *
  * @author Andrii Borovyk
  */
 public abstract class BeanResolvingStrategy {
 
-    public XmlTag resolveBeanInContext(String beanId, String contextFileName) {
+    private static final long LOCK_WAIT_MILLIS = 10;
 
+    protected final Project project;
 
-        ContextContainerEntity contextContainerEntity;
+    private final Set<VirtualFile> changedFiles = ContainerUtil.newConcurrentSet();
+
+    /**
+     * Latest built tables; built without holding any lock and published as a whole.
+     */
+    private volatile ContextTables contextTables = ContextTables.EMPTY;
+
+    private final ReentrantLock updateLock = new ReentrantLock();
+
+    protected BeanResolvingStrategy(final Project project) {
+        this.project = project;
+    }
+
+    /**
+     * Whether file is member of at least one context.
+     */
+    public boolean isContextFile(VirtualFile contextFile) {
+        return !getContextTables(contextFile).isEmpty();
+    }
+
+    /**
+     * Bean declared under given id, name or alias in contexts containing given file or in their parent contexts.
+     */
+    public XmlTag resolveBeanInContext(String beanId, VirtualFile contextFile) {
+        BeanDeclaration declaration = resolveBeanDeclaration(beanId, contextFile);
+        return declaration != null ? declaration.getTag(project) : null;
+    }
+
+    /**
+     * Declaration of bean visible under given id, name or alias from contexts containing given file. Unlike
+     * {@link #resolveBeanInContext}, does not parse files declaring the bean or its aliases.
+     */
+    public BeanDeclaration resolveBeanDeclaration(String beanId, VirtualFile contextFile) {
+        for (ContextBeanTable table : getContextTables(contextFile)) {
+            String beanName = table.resolveAlias(beanId);
+            BeanDeclaration declaration = beanName != null ? resolveDeclaredBean(beanName, table) : null;
+            if (declaration != null) {
+                return declaration;
+            }
+        }
         return null;
     }
 
-    protected boolean isAllowedRootContainer(ContextContainerEntity rootContextContainerEntity,
-        String contextFileName) {
-        for (ContextContainerEntity contextContainerEntity : rootContextContainerEntity.getChildContextContainers()) {
+    /**
+     * All bean ids, names and aliases visible in contexts containing given file, including parent contexts.
+     */
+    public Map<String, BeanIndexEntry> getBeanNames(VirtualFile contextFile) {
+        Map<String, BeanIndexEntry> names = new HashMap<String, BeanIndexEntry>();
+        for (ContextBeanTable table : getContextTables(contextFile)) {
+            for (ContextBeanTable context = table; context != null; context = context.getParent()) {
+                for (Map.Entry<String, BeanIndexEntry> name : context.getNames().entrySet()) {
+                    names.putIfAbsent(name.getKey(), name.getValue());
+                }
+            }
+        }
+        return names;
+    }
 
+    /**
+     * Whether bean with given id, name or alias is declared in contexts containing given file or in their parents.
+     */
+    public boolean isBeanVisible(String beanId, VirtualFile contextFile) {
+        for (ContextBeanTable table : getContextTables(contextFile)) {
+            for (ContextBeanTable context = table; context != null; context = context.getParent()) {
+                if (context.containsName(beanId)) {
+                    return true;
+                }
+            }
         }
+        return false;
+    }
+
+    /**
+     * Member files of given context and of all its child contexts.
+     */
+    public Set<VirtualFile> getContextFiles(ContextContainerEntity contextContainer) {
+        Set<VirtualFile> files = new LinkedHashSet<VirtualFile>();
+        collectContextFiles(contextContainer, getContextTables().entityTables, files);
+        return files;
+    }
 
-        return true;
+    private void collectContextFiles(ContextContainerEntity contextContainer,
+        Map<ContextContainerEntity, ContextBeanTable> tables, Set<VirtualFile> files) {
+        ContextBeanTable table = tables.get(contextContainer);
+        if (table == null) {
+            return;
+        }
+        files.addAll(table.getFiles());
+        for (ContextContainerEntity childContext : getChildContexts(contextContainer)) {
+            collectContextFiles(childContext, tables, files);
+        }
+    }
 
+    protected boolean isAllowedRootContainer(ContextContainerEntity rootContextContainerEntity,
+        VirtualFile contextFile) {
+        ContextBeanTable rootTable = getContextTables().entityTables.get(rootContextContainerEntity);
+        for (ContextBeanTable table : getContextTables(contextFile)) {
+            for (ContextBeanTable context = table; context != null; context = context.getParent()) {
+                if (context == rootTable) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
 
     protected XmlTag resolveBeanInFile(String beanId, XmlFile xmlFile) {
+        VirtualFile file = xmlFile.getVirtualFile();
+        return file == null ? null :
+            BeanNameIndex.findBeanTag(project, beanId, GlobalSearchScope.fileScope(project, file)).orElse(null);
+    }
+
+    /**
+     * Schedules replacement of declarations of given file in all tables containing it.
+     */
+    protected void fileChanged(VirtualFile file) {
+        changedFiles.add(file);
+    }
+
+    /**
+     * Modification count of contexts and of files they could consist of; all tables are rebuilt once it changes.
+     */
+    public abstract long getContextsModificationCount();
+
+    /**
+     * Modification count of member files of contexts, e.g. of their imports; once it changes, only contexts
+     * containing changed files collect their member files again.
+     */
+    public abstract long getMemberFilesModificationCount();
+
+    protected abstract List<ContextContainerEntity> getRootContextContainers();
+
+    /**
+     * Own member files of context, not including files of its parent or child contexts.
+     */
+    protected abstract List<PsiFile> getPsiFileList(ContextContainerEntity contextContainer);
+
+    /**
+     * Child contexts of given context, which see its beans.
+     */
+    protected abstract List<ContextContainerEntity> getChildContexts(ContextContainerEntity contextContainer);
+
+    private BeanDeclaration resolveDeclaredBean(String beanId, ContextBeanTable table) {
+        for (ContextBeanTable context = table; context != null; context = context.getParent()) {
+            BeanDeclaration declaration = findDeclaredBean(beanId, context.get(beanId));
+            if (declaration != null) {
+                return declaration;
+            }
+        }
         return null;
     }
 
-    protected abstract List<PsiFile> getPsiFileList(ContextContainerEntity rootContextContainer);
+    private BeanDeclaration findDeclaredBean(String beanId,
+        Collection<Pair<VirtualFile, BeanIndexEntry>> declarations) {
+        for (Pair<VirtualFile, BeanIndexEntry> declaration : declarations) {
+            if (!declaration.second.isAlias()) {
+                return new BeanDeclaration(declaration.first, beanId, declaration.second);
+            }
+        }
+        return null;
+    }
+
+    private List<ContextBeanTable> getContextTables(VirtualFile contextFile) {
+        if (contextFile == null) {
+            return Collections.emptyList();
+        }
+        List<ContextBeanTable> tables = getContextTables().fileTables.get(contextFile);
+        return tables != null ? tables : Collections.<ContextBeanTable>emptyList();
+    }
+
+    private ContextTables getContextTables() {
+        if (DumbService.isDumb(project)) {
+            return ContextTables.EMPTY;
+        }
+        ContextTables tables = contextTables;
+        if (isUpToDate(tables)) {
+            return tables;
+        }
+        if (tables != ContextTables.EMPTY) {
+            if (!updateLock.tryLock()) {
+                // updated by another thread, previous tables are used meanwhile
+                return tables;
+            }
+        } else {
+            lockCancellably();
+        }
+        try {
+            tables = contextTables;
+            if (!isUpToDate(tables)) {
+                tables = updateContextTables(tables);
+                contextTables = tables;
+            }
+            return tables;
+        } finally {
+            updateLock.unlock();
+        }
+    }
+
+    private boolean isUpToDate(ContextTables tables) {
+        return tables.modificationCount == getContextsModificationCount()
+            && tables.memberFilesModificationCount == getMemberFilesModificationCount() && changedFiles.isEmpty();
+    }
+
+    /**
+     * Waits for tables being built by another thread, as there are no previous tables to use.
+     */
+    private void lockCancellably() {
+        try {
+            while (!updateLock.tryLock(LOCK_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                ProgressManager.checkCanceled();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ProcessCanceledException();
+        }
+    }
+
+    private ContextTables updateContextTables(ContextTables tables) {
+        long modificationCount = getContextsModificationCount();
+        long memberFilesModificationCount = getMemberFilesModificationCount();
+        Set<VirtualFile> files = new HashSet<VirtualFile>(changedFiles);
+        if (tables.modificationCount != modificationCount) {
+            tables = buildContextTables(modificationCount, memberFilesModificationCount);
+        } else {
+            if (tables.memberFilesModificationCount != memberFilesModificationCount) {
+                tables = updateMemberFiles(tables, files, memberFilesModificationCount);
+            }
+            for (VirtualFile file : files) {
+                List<ContextBeanTable> fileTables = tables.fileTables.get(file);
+                if (fileTables != null) {
+                    Map<String, BeanIndexEntry> declarations = getFileDeclarations(file);
+                    for (ContextBeanTable table : fileTables) {
+                        table.update(file, declarations);
+                    }
+                }
+            }
+        }
+        changedFiles.removeAll(files);
+        return tables;
+    }
+
+    private ContextTables buildContextTables(long modificationCount, long memberFilesModificationCount) {
+        ContextTables tables = new ContextTables(modificationCount, memberFilesModificationCount);
+        for (ContextContainerEntity rootContextContainer : getRootContextContainers()) {
+            buildContextTable(rootContextContainer, null, tables);
+        }
+        return tables;
+    }
+
+    private void buildContextTable(ContextContainerEntity contextContainer, ContextBeanTable parent,
+        ContextTables tables) {
+        if (tables.entityTables.containsKey(contextContainer)) {
+            return;
+        }
+        ContextBeanTable table = new ContextBeanTable(parent);
+        for (VirtualFile file : getOwnMemberFiles(contextContainer)) {
+            ProgressManager.checkCanceled();
+            table.update(file, getFileDeclarations(file));
+            tables.fileTables.computeIfAbsent(file, f -> new ArrayList<ContextBeanTable>()).add(table);
+        }
+        tables.entityTables.put(contextContainer, table);
+        for (ContextContainerEntity childContext : getChildContexts(contextContainer)) {
+            buildContextTable(childContext, table, tables);
+        }
+    }
+
+    /**
+     * Collects member files again for contexts containing any of changed files, as their imports could have
+     * changed. Member files and their declarations are collected first, so that cancellation leaves published
+     * tables untouched; then tables are updated in place and indexed by file in new tables snapshot.
+     */
+    private ContextTables updateMemberFiles(ContextTables tables, Set<VirtualFile> files,
+        long memberFilesModificationCount) {
+        Map<ContextBeanTable, Map<VirtualFile, Map<String, BeanIndexEntry>>> memberFiles =
+            new IdentityHashMap<ContextBeanTable, Map<VirtualFile, Map<String, BeanIndexEntry>>>();
+        for (Map.Entry<ContextContainerEntity, ContextBeanTable> entityTable : tables.entityTables.entrySet()) {
+            ContextBeanTable table = entityTable.getValue();
+            if (files.stream().anyMatch(table::contains)) {
+                Map<VirtualFile, Map<String, BeanIndexEntry>> declarations =
+                    new LinkedHashMap<VirtualFile, Map<String, BeanIndexEntry>>();
+                for (VirtualFile file : getOwnMemberFiles(entityTable.getKey())) {
+                    ProgressManager.checkCanceled();
+                    declarations.put(file, table.contains(file) ? null : getFileDeclarations(file));
+                }
+                memberFiles.put(table, declarations);
+            }
+        }
+
+        ContextTables updated = new ContextTables(tables, memberFilesModificationCount);
+        for (Map.Entry<ContextBeanTable, Map<VirtualFile, Map<String, BeanIndexEntry>>> tableFiles :
+            memberFiles.entrySet()) {
+            ContextBeanTable table = tableFiles.getKey();
+            Map<VirtualFile, Map<String, BeanIndexEntry>> declarations = tableFiles.getValue();
+            for (VirtualFile file : table.getFiles()) {
+                if (!declarations.containsKey(file)) {
+                    table.remove(file);
+                    updated.removeFileTable(file, table);
+                }
+            }
+            for (Map.Entry<VirtualFile, Map<String, BeanIndexEntry>> declaration : declarations.entrySet()) {
+                if (declaration.getValue() != null) {
+                    table.update(declaration.getKey(), declaration.getValue());
+                    updated.addFileTable(declaration.getKey(), table);
+                }
+            }
+        }
+        return updated;
+    }
+
+    private Set<VirtualFile> getOwnMemberFiles(ContextContainerEntity contextContainer) {
+        Set<VirtualFile> files = new LinkedHashSet<VirtualFile>();
+        for (PsiFile psiFile : getPsiFileList(contextContainer)) {
+            if (psiFile.getVirtualFile() != null) {
+                files.add(psiFile.getVirtualFile());
+            }
+        }
+        return files;
+    }
+
+    private Map<String, BeanIndexEntry> getFileDeclarations(VirtualFile file) {
+        if (!file.isValid()) {
+            return Collections.emptyMap();
+        }
+        return FileBasedIndex.getInstance().getFileData(BeanNameIndex.NAME, file, project);
+    }
+
+    /**
+     * Tables of all contexts built for one contexts modification count, with index of tables by member file.
+     * Never modified once published, except for declarations inside of tables.
+     */
+    private static final class ContextTables {
+
+        static final ContextTables EMPTY = new ContextTables(-1, -1);
+
+        final long modificationCount;
+
+        final long memberFilesModificationCount;
 
+        final Map<ContextContainerEntity, ContextBeanTable> entityTables;
+
+        final Map<VirtualFile, List<ContextBeanTable>> fileTables;
+
+        ContextTables(final long modificationCount, final long memberFilesModificationCount) {
+            this.modificationCount = modificationCount;
+            this.memberFilesModificationCount = memberFilesModificationCount;
+            this.entityTables = new IdentityHashMap<ContextContainerEntity, ContextBeanTable>();
+            this.fileTables = new HashMap<VirtualFile, List<ContextBeanTable>>();
+        }
+
+        /**
+         * Copy of published tables to be indexed by changed member files; lists of tables by file are copied on
+         * change only.
+         */
+        ContextTables(final ContextTables tables, final long memberFilesModificationCount) {
+            this.modificationCount = tables.modificationCount;
+            this.memberFilesModificationCount = memberFilesModificationCount;
+            this.entityTables = tables.entityTables;
+            this.fileTables = new HashMap<VirtualFile, List<ContextBeanTable>>(tables.fileTables);
+        }
+
+        void addFileTable(VirtualFile file, ContextBeanTable table) {
+            List<ContextBeanTable> tables = new ArrayList<ContextBeanTable>(
+                fileTables.getOrDefault(file, Collections.<ContextBeanTable>emptyList()));
+            tables.add(table);
+            fileTables.put(file, tables);
+        }
+
+        void removeFileTable(VirtualFile file, ContextBeanTable table) {
+            List<ContextBeanTable> tables = new ArrayList<ContextBeanTable>(
+                fileTables.getOrDefault(file, Collections.<ContextBeanTable>emptyList()));
+            tables.remove(table);
+            if (tables.isEmpty()) {
+                fileTables.remove(file);
+            } else {
+                fileTables.put(file, tables);
+            }
+        }
+    }
 }
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.completion.resolving;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiTreeChangeAdapter;
+import com.intellij.psi.PsiTreeChangeEvent;
+import com.intellij.psi.xml.XmlFile;
+import org.jetbrains.annotations.NotNull;
+import org.springirun.completion.SpringirunCompletionUtils;
+import org.springirun.search.ImportGraph;
+import org.springirun.tool.ContextContainerEntity;
+import org.springirun.tool.ContextPersistentStateComponent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Bean resolving within contexts configured in context manager. Member files of context are its configuration
+ * files together with files imported by them. Context entities nested below configuration files of a context are
+ * its child contexts, e.g. servlet contexts of web application root context.
+ *
+ * @author Andrii Borovyk
+ */
+public class ContextBeanResolvingStrategy extends BeanResolvingStrategy implements Disposable {
+
+    public ContextBeanResolvingStrategy(final Project project) {
+        super(project);
+        PsiManager.getInstance(project).addPsiTreeChangeListener(new MemberFileChangeListener(), this);
+    }
+
+    public static BeanResolvingStrategy getInstance(Project project) {
+        return ServiceManager.getService(project, ContextBeanResolvingStrategy.class);
+    }
+
+    @Override
+    public long getContextsModificationCount() {
+        return ContextPersistentStateComponent.getInstance(project).getModificationTracker().getModificationCount()
+            + ImportGraph.getInstance(project).getFileSetModificationTracker().getModificationCount()
+            + ProjectRootManager.getInstance(project).getModificationCount();
+    }
+
+    @Override
+    public long getMemberFilesModificationCount() {
+        return ImportGraph.getInstance(project).getModificationTracker().getModificationCount();
+    }
+
+    @Override
+    protected List<ContextContainerEntity> getRootContextContainers() {
+        return ContextPersistentStateComponent.getInstance(project).getContextContainer()
+            .getContextContainerRootEntities();
+    }
+
+    @Override
+    protected List<PsiFile> getPsiFileList(ContextContainerEntity contextContainer) {
+        List<PsiFile> psiFiles = new ArrayList<PsiFile>();
+        for (VirtualFile file : getMemberFiles(contextContainer)) {
+            PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+            if (psiFile != null) {
+                psiFiles.add(psiFile);
+            }
+        }
+        return psiFiles;
+    }
+
+    /**
+     * Member files of given context without its child contexts. Root context consists of configuration files placed
+     * directly under it, any deeper entity is a child context of its parent entity consisting of own configuration
+     * file. Entities need not belong to persisted state, e.g. contexts edited in context manager.
+     */
+    private Set<VirtualFile> getMemberFiles(ContextContainerEntity contextContainer) {
+        Set<VirtualFile> files = new LinkedHashSet<VirtualFile>();
+        if (contextContainer.isRoot()) {
+            for (ContextContainerEntity configuration : getChildren(contextContainer)) {
+                collectContextFiles(configuration, files);
+            }
+        } else {
+            collectContextFiles(contextContainer, files);
+        }
+        return files;
+    }
+
+    @Override
+    protected List<ContextContainerEntity> getChildContexts(ContextContainerEntity contextContainer) {
+        if (!contextContainer.isRoot()) {
+            return getChildren(contextContainer);
+        }
+        List<ContextContainerEntity> childContexts = new ArrayList<ContextContainerEntity>();
+        for (ContextContainerEntity configuration : getChildren(contextContainer)) {
+            childContexts.addAll(getChildren(configuration));
+        }
+        return childContexts;
+    }
+
+    private static List<ContextContainerEntity> getChildren(ContextContainerEntity contextContainerEntity) {
+        return contextContainerEntity.getChildContextContainers() != null ?
+            contextContainerEntity.getChildContextContainers() : Collections.emptyList();
+    }
+
+    private void collectContextFiles(ContextContainerEntity contextContainerEntity, Set<VirtualFile> files) {
+        VirtualFile contextFile =
+            ContextPersistentStateComponent.getInstance(project).getContextVirtualFile(contextContainerEntity);
+        if (contextFile != null) {
+            files.addAll(getImportClosure(contextFile));
+        }
+    }
+
+    /**
+     * Given configuration file together with files imported by it directly or transitively.
+     */
+    public Set<VirtualFile> getImportClosure(VirtualFile contextFile) {
+        PsiFile psiFile = SpringirunCompletionUtils.resolvePsiFile(project, contextFile);
+        return psiFile instanceof XmlFile ? ImportGraph.getInstance(project).getImportClosure((XmlFile) psiFile) :
+            Collections.singleton(contextFile);
+    }
+
+    private class MemberFileChangeListener extends PsiTreeChangeAdapter {
+
+        private void onChange(PsiTreeChangeEvent event) {
+            PsiFile file = event.getFile();
+            if (file instanceof XmlFile && file.getVirtualFile() != null) {
+                fileChanged(file.getVirtualFile());
+            }
+        }
+
+        @Override
+        public void childAdded(@NotNull final PsiTreeChangeEvent event) {
+            onChange(event);
+        }
+
+        @Override
+        public void childRemoved(@NotNull final PsiTreeChangeEvent event) {
+            onChange(event);
+        }
+
+        @Override
+        public void childReplaced(@NotNull final PsiTreeChangeEvent event) {
+            onChange(event);
+        }
+
+        @Override
+        public void childMoved(@NotNull final PsiTreeChangeEvent event) {
+            onChange(event);
+        }
+
+        @Override
+        public void childrenChanged(@NotNull final PsiTreeChangeEvent event) {
+            onChange(event);
+        }
+    }
+
+    @Override
+    public void dispose() {
+    }
+}
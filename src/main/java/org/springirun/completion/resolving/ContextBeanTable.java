@@ -0,0 +1,199 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.completion.resolving;
+
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.containers.MultiMap;
+import org.springirun.index.BeanIndexEntry;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Bean ids, names and aliases of all member files of one context merged into single table. Declarations of one
+ * member file can be replaced without touching the others. Table is shared between threads resolving references,
+ * and table of parent context is shared by tables of all its child contexts. Alias chains are resolved once per
+ * name and memoized until declared names change.
+ *
+ * @author Andrii Borovyk
+ */
+class ContextBeanTable {
+
+    private static final String UNRESOLVED = "";
+
+    private final ContextBeanTable parent;
+
+    private final Map<VirtualFile, Map<String, BeanIndexEntry>> fileNames =
+        new LinkedHashMap<VirtualFile, Map<String, BeanIndexEntry>>();
+
+    private final MultiMap<String, Pair<VirtualFile, BeanIndexEntry>> names = MultiMap.createLinked();
+
+    /**
+     * Memoized final targets of names resolved in this context, {@link #UNRESOLVED} for broken or cyclic chains.
+     */
+    private final Map<String, String> aliasTargets = new HashMap<String, String>();
+
+    private long modificationCount;
+
+    private long aliasTargetsModificationCount = -1;
+
+    ContextBeanTable(final ContextBeanTable parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * Table of parent context, which beans are visible from this context unless overridden.
+     */
+    ContextBeanTable getParent() {
+        return parent;
+    }
+
+    synchronized boolean contains(VirtualFile file) {
+        return fileNames.containsKey(file);
+    }
+
+    synchronized Set<VirtualFile> getFiles() {
+        return new LinkedHashSet<VirtualFile>(fileNames.keySet());
+    }
+
+    /**
+     * Replaces declarations of member file.
+     */
+    synchronized void update(VirtualFile file, Map<String, BeanIndexEntry> declarations) {
+        Map<String, BeanIndexEntry> previous = fileNames.put(file, declarations);
+        if (previous != null) {
+            for (Map.Entry<String, BeanIndexEntry> declaration : previous.entrySet()) {
+                names.remove(declaration.getKey(), Pair.create(file, declaration.getValue()));
+            }
+        }
+        for (Map.Entry<String, BeanIndexEntry> declaration : declarations.entrySet()) {
+            names.putValue(declaration.getKey(), Pair.create(file, declaration.getValue()));
+        }
+        if (previous == null || !hasSameNames(previous, declarations)) {
+            modificationCount++;
+        }
+    }
+
+    /**
+     * Removes declarations of file which is not member of context anymore.
+     */
+    synchronized void remove(VirtualFile file) {
+        Map<String, BeanIndexEntry> previous = fileNames.remove(file);
+        if (previous != null) {
+            for (Map.Entry<String, BeanIndexEntry> declaration : previous.entrySet()) {
+                names.remove(declaration.getKey(), Pair.create(file, declaration.getValue()));
+            }
+            modificationCount++;
+        }
+    }
+
+    /**
+     * Modification count of declared names and alias targets of this context and its parents. Declaration offsets
+     * are not taken into account.
+     */
+    synchronized long getModificationCount() {
+        return modificationCount + (parent != null ? parent.getModificationCount() : 0);
+    }
+
+    /**
+     * Name of bean finally aliased by given name as seen from this context, following alias chains through this
+     * and parent contexts. Given name itself if it is declared by a bean, null if alias chain is broken or cyclic.
+     * Results are memoized until declared names of this context or its parents change.
+     */
+    synchronized String resolveAlias(String name) {
+        long currentModificationCount = getModificationCount();
+        if (aliasTargetsModificationCount != currentModificationCount) {
+            aliasTargets.clear();
+            aliasTargetsModificationCount = currentModificationCount;
+        }
+        String target = aliasTargets.get(name);
+        if (target == null) {
+            target = computeAliasTarget(name);
+            aliasTargets.put(name, target != null ? target : UNRESOLVED);
+        }
+        return target.isEmpty() ? null : target;
+    }
+
+    private String computeAliasTarget(String name) {
+        Set<String> visited = new HashSet<String>();
+        for (String current = name; current != null && visited.add(current); ) {
+            Collection<Pair<VirtualFile, BeanIndexEntry>> declarations = findNearestDeclarations(current);
+            String target = null;
+            for (Pair<VirtualFile, BeanIndexEntry> declaration : declarations) {
+                if (!declaration.second.isAlias()) {
+                    return current;
+                }
+                if (target == null && !declaration.second.getTarget().isEmpty()) {
+                    target = declaration.second.getTarget();
+                }
+            }
+            current = target;
+        }
+        return null;
+    }
+
+    /**
+     * Declarations of given name in this context, or in the nearest parent context declaring it.
+     */
+    private Collection<Pair<VirtualFile, BeanIndexEntry>> findNearestDeclarations(String name) {
+        for (ContextBeanTable context = this; context != null; context = context.parent) {
+            Collection<Pair<VirtualFile, BeanIndexEntry>> declarations = context.get(name);
+            if (!declarations.isEmpty()) {
+                return declarations;
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    synchronized Collection<Pair<VirtualFile, BeanIndexEntry>> get(String name) {
+        return new ArrayList<Pair<VirtualFile, BeanIndexEntry>>(names.get(name));
+    }
+
+    synchronized boolean containsName(String name) {
+        return names.containsKey(name);
+    }
+
+    synchronized Map<String, BeanIndexEntry> getNames() {
+        Map<String, BeanIndexEntry> result = new HashMap<String, BeanIndexEntry>();
+        for (Map.Entry<String, Collection<Pair<VirtualFile, BeanIndexEntry>>> entry : names.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().iterator().next().second);
+        }
+        return result;
+    }
+
+    private static boolean hasSameNames(Map<String, BeanIndexEntry> previous, Map<String, BeanIndexEntry> current) {
+        if (!previous.keySet().equals(current.keySet())) {
+            return false;
+        }
+        for (Map.Entry<String, BeanIndexEntry> declaration : current.entrySet()) {
+            BeanIndexEntry previousDeclaration = previous.get(declaration.getKey());
+            if (previousDeclaration.getKind() != declaration.getValue().getKind()
+                || !Objects.equals(previousDeclaration.getTarget(), declaration.getValue().getTarget())) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.index;
+
+import com.intellij.ide.highlighter.XmlFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.psi.xml.XmlTag;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.springirun.completion.SpringirunCompletionUtils.BEAN;
+import static org.springirun.completion.SpringirunCompletionUtils.BEAN_NAMESPACE;
+import static org.springirun.completion.SpringirunCompletionUtils.CLASS;
+
+/**
+ * Reverse index of bean classes: class name from bean {@code class} attribute to offsets of bean tags declaring it,
+ * nested beans included. Lets find XML definitions of a class without scanning XML files.
+ *
+ * @author Andrii Borovyk
+ */
+public class BeanClassIndex extends FileBasedIndexExtension<String, List<Integer>> {
+
+    public static final ID<String, List<Integer>> NAME = ID.create("springirun.beanClass");
+
+    private static final DataExternalizer<List<Integer>> OFFSETS_EXTERNALIZER =
+        new DataExternalizer<List<Integer>>() {
+            @Override
+            public void save(final DataOutput out, final List<Integer> value) throws IOException {
+                DataInputOutputUtil.writeINT(out, value.size());
+                for (Integer offset : value) {
+                    DataInputOutputUtil.writeINT(out, offset);
+                }
+            }
+
+            @Override
+            public List<Integer> read(final DataInput in) throws IOException {
+                int size = DataInputOutputUtil.readINT(in);
+                List<Integer> offsets = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    offsets.add(DataInputOutputUtil.readINT(in));
+                }
+                return offsets;
+            }
+        };
+
+    @NotNull
+    @Override
+    public ID<String, List<Integer>> getName() {
+        return NAME;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, List<Integer>, FileContent> getIndexer() {
+        return inputData -> {
+            Map<String, List<Integer>> result = new HashMap<>();
+            if (!SpringFileIndex.isSpringFile(inputData)) {
+                return result;
+            }
+            PsiFile psiFile = inputData.getPsiFile();
+            XmlTag rootTag = psiFile instanceof XmlFile ? ((XmlFile) psiFile).getRootTag() : null;
+            if (rootTag != null) {
+                indexTag(rootTag, result);
+            }
+            return result;
+        };
+    }
+
+    private static void indexTag(XmlTag tag, Map<String, List<Integer>> result) {
+        if (BEAN.equals(tag.getLocalName()) && BEAN_NAMESPACE.equals(tag.getNamespace())) {
+            String className = tag.getAttributeValue(CLASS);
+            if (!StringUtil.isEmptyOrSpaces(className)) {
+                result.computeIfAbsent(className.trim(), k -> new ArrayList<>())
+                    .add(tag.getTextRange().getStartOffset());
+            }
+        }
+        for (XmlTag subTag : tag.getSubTags()) {
+            indexTag(subTag, result);
+        }
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<List<Integer>> getValueExternalizer() {
+        return OFFSETS_EXTERNALIZER;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(XmlFileType.INSTANCE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * Whether any bean of one of given class names is declared within given scope.
+     */
+    public static boolean hasBeans(Collection<String> classNames, GlobalSearchScope scope) {
+        for (String className : classNames) {
+            if (!FileBasedIndex.getInstance().getContainingFiles(NAME, className, scope).isEmpty()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Bean tags of given class names declared within given scope. Declaring files are parsed, so should be called
+     * for navigation only.
+     */
+    public static List<XmlTag> findBeanTags(Project project, Collection<String> classNames,
+        GlobalSearchScope scope) {
+        List<XmlTag> beanTags = new ArrayList<>();
+        for (String className : classNames) {
+            FileBasedIndex.getInstance().processValues(NAME, className, null, (file, offsets) -> {
+                for (Integer offset : offsets) {
+                    XmlTag beanTag = getBeanTag(project, file, offset);
+                    if (beanTag != null) {
+                        beanTags.add(beanTag);
+                    }
+                }
+                return true;
+            }, scope);
+        }
+        return beanTags;
+    }
+
+    private static XmlTag getBeanTag(Project project, VirtualFile file, int offset) {
+        PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+        if (psiFile == null) {
+            return null;
+        }
+        XmlTag tag = PsiTreeUtil.getParentOfType(psiFile.findElementAt(offset), XmlTag.class, false);
+        return tag != null && BEAN.equals(tag.getLocalName()) ? tag : null;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.index;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.psi.xml.XmlTag;
+import com.intellij.util.xml.DomFileElement;
+import com.intellij.util.xml.DomManager;
+import org.springirun.model.Bean;
+import org.springirun.model.Beans;
+import org.springirun.model.BeansModel;
+
+/**
+ * Bean declaration found through {@link BeanNameIndex}. Index entries are up to date with file contents, so
+ * declarations are trusted as they are. Declaration tag requires parsed file and should be obtained for navigation
+ * targets only; bean model is read through stub-backed DOM of declaring file.
+ *
+ * @author Andrii Borovyk
+ */
+public class BeanDeclaration {
+
+    private final VirtualFile file;
+
+    private final String name;
+
+    private final BeanIndexEntry entry;
+
+    public BeanDeclaration(final VirtualFile file, final String name, final BeanIndexEntry entry) {
+        this.file = file;
+        this.name = name;
+        this.entry = entry;
+    }
+
+    public VirtualFile getFile() {
+        return file;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public BeanIndexEntry getEntry() {
+        return entry;
+    }
+
+    public XmlTag getTag(Project project) {
+        return BeanNameIndex.getDeclarationTag(project, file, entry);
+    }
+
+    /**
+     * Declared bean model, matched by declared id or name within DOM of declaring file, or null for aliases and
+     * files without beans model.
+     */
+    public Bean getBean(Project project) {
+        if (entry.isAlias()) {
+            return null;
+        }
+        PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+        DomFileElement<Beans> fileElement = psiFile instanceof XmlFile ?
+            DomManager.getDomManager(project).getFileElement((XmlFile) psiFile, Beans.class) : null;
+        return fileElement != null ? findBean(fileElement.getRootElement()) : null;
+    }
+
+    private Bean findBean(Beans beans) {
+        for (Bean bean : beans.getBeans()) {
+            if (isDeclaredBy(bean)) {
+                return bean;
+            }
+        }
+        for (Beans nestedBeans : beans.getNestedBeans()) {
+            Bean bean = findBean(nestedBeans);
+            if (bean != null) {
+                return bean;
+            }
+        }
+        return null;
+    }
+
+    private boolean isDeclaredBy(Bean bean) {
+        if (entry.getKind() == BeanIndexEntry.Kind.ID) {
+            return name.equals(bean.getId().getStringValue());
+        }
+        String names = bean.getName().getStringValue();
+        if (names != null) {
+            for (String beanName : BeansModel.splitNames(names)) {
+                if (name.equals(beanName)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.index;
+
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.IOUtil;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Location of a bean id, bean name or alias declaration inside of indexed file. Alias declarations also keep name
+ * of aliased bean, so alias chains are followed without reading declaring files.
+ *
+ * @author Andrii Borovyk
+ */
+public class BeanIndexEntry {
+
+    public enum Kind {
+        ID, NAME, ALIAS
+    }
+
+    public static final DataExternalizer<BeanIndexEntry> EXTERNALIZER = new DataExternalizer<BeanIndexEntry>() {
+        @Override
+        public void save(final DataOutput out, final BeanIndexEntry value) throws IOException {
+            out.writeByte(value.getKind().ordinal());
+            out.writeInt(value.getOffset());
+            if (value.isAlias()) {
+                IOUtil.writeUTF(out, value.getTarget());
+            }
+        }
+
+        @Override
+        public BeanIndexEntry read(final DataInput in) throws IOException {
+            Kind kind = Kind.values()[in.readByte()];
+            int offset = in.readInt();
+            return kind == Kind.ALIAS ? new BeanIndexEntry(offset, IOUtil.readUTF(in))
+                : new BeanIndexEntry(kind, offset);
+        }
+    };
+
+    private final Kind kind;
+
+    private final int offset;
+
+    private final String target;
+
+    public BeanIndexEntry(final Kind kind, final int offset) {
+        this(kind, offset, null);
+    }
+
+    /**
+     * Alias declaration with name of aliased bean.
+     */
+    public BeanIndexEntry(final int offset, final String target) {
+        this(Kind.ALIAS, offset, target);
+    }
+
+    private BeanIndexEntry(final Kind kind, final int offset, final String target) {
+        this.kind = kind;
+        this.offset = offset;
+        this.target = target;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public boolean isAlias() {
+        return kind == Kind.ALIAS;
+    }
+
+    /**
+     * Name of bean aliased by alias declaration, null for bean declarations.
+     */
+    public String getTarget() {
+        return target;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        BeanIndexEntry that = (BeanIndexEntry) o;
+        return offset == that.offset && kind == that.kind && Objects.equals(target, that.target);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(kind, offset, target);
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.index;
+
+import com.intellij.ide.highlighter.XmlFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Pair;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.psi.xml.XmlTag;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+import org.springirun.completion.SpringirunCompletionUtils;
+import org.springirun.model.BeansModel;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.springirun.completion.SpringirunCompletionUtils.ALIAS;
+import static org.springirun.completion.SpringirunCompletionUtils.BEAN;
+import static org.springirun.completion.SpringirunCompletionUtils.BEANS;
+import static org.springirun.completion.SpringirunCompletionUtils.BEAN_NAMESPACE;
+
+/**
+ * Project wide index of bean ids, names and aliases declared in Spring configuration files. Every name listed in
+ * bean {@code name} attribute is a key of its own.
+ *
+ * @author Andrii Borovyk
+ */
+public class BeanNameIndex extends FileBasedIndexExtension<String, BeanIndexEntry> {
+
+    public static final ID<String, BeanIndexEntry> NAME = ID.create("springirun.beanName");
+
+    private static final String ID_ATTRIBUTE = "id";
+
+    @NotNull
+    @Override
+    public ID<String, BeanIndexEntry> getName() {
+        return NAME;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, BeanIndexEntry, FileContent> getIndexer() {
+        return inputData -> {
+            Map<String, BeanIndexEntry> result = new HashMap<>();
+            if (!SpringFileIndex.isSpringFile(inputData)) {
+                return result;
+            }
+            PsiFile psiFile = inputData.getPsiFile();
+            if (psiFile instanceof XmlFile) {
+                indexBeansTag(((XmlFile) psiFile).getRootTag(), result);
+            }
+            return result;
+        };
+    }
+
+    private static void indexBeansTag(XmlTag beansTag, Map<String, BeanIndexEntry> result) {
+        if (beansTag == null || !BEANS.equals(beansTag.getLocalName())
+            || !BEAN_NAMESPACE.equals(beansTag.getNamespace())) {
+            return;
+        }
+        for (XmlTag tag : beansTag.getSubTags()) {
+            int offset = tag.getTextRange().getStartOffset();
+            if (BEAN.equals(tag.getLocalName())) {
+                String names = tag.getAttributeValue(SpringirunCompletionUtils.NAME);
+                if (names != null) {
+                    for (String name : BeansModel.splitNames(names)) {
+                        putIfNotEmpty(result, name, new BeanIndexEntry(BeanIndexEntry.Kind.NAME, offset));
+                    }
+                }
+                putIfNotEmpty(result, tag.getAttributeValue(ID_ATTRIBUTE),
+                    new BeanIndexEntry(BeanIndexEntry.Kind.ID, offset));
+            } else if (ALIAS.equals(tag.getLocalName())) {
+                String target = StringUtil.notNullize(tag.getAttributeValue(SpringirunCompletionUtils.NAME)).trim();
+                putIfNotEmpty(result, tag.getAttributeValue(ALIAS), new BeanIndexEntry(offset, target));
+            } else if (BEANS.equals(tag.getLocalName())) {
+                indexBeansTag(tag, result);
+            }
+        }
+    }
+
+    private static void putIfNotEmpty(Map<String, BeanIndexEntry> result, String key, BeanIndexEntry entry) {
+        if (!StringUtil.isEmptyOrSpaces(key)) {
+            result.put(key, entry);
+        }
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<BeanIndexEntry> getValueExternalizer() {
+        return BeanIndexEntry.EXTERNALIZER;
+    }
+
+    @Override
+    public int getVersion() {
+        return 3;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(XmlFileType.INSTANCE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * Resolves bean tag by its id, name or alias within given scope. Beans declared directly take precedence over
+     * aliases.
+     */
+    public static Optional<XmlTag> findBeanTag(Project project, String name, GlobalSearchScope scope) {
+        return findBeanDeclaration(project, name, scope).map(declaration -> declaration.getTag(project));
+    }
+
+    /**
+     * Resolves bean declaration by its id, name or alias within given scope, following alias chains. Declarations
+     * and alias targets are read from the index, so no file is parsed.
+     */
+    public static Optional<BeanDeclaration> findBeanDeclaration(Project project, String name,
+        GlobalSearchScope scope) {
+        Set<String> visited = new HashSet<>();
+        for (String current = name; current != null && visited.add(current); ) {
+            List<Pair<VirtualFile, BeanIndexEntry>> entries = getEntries(current, scope);
+            Optional<BeanDeclaration> bean = findDeclaredBean(current, entries);
+            if (bean.isPresent()) {
+                return bean;
+            }
+            current = entries.stream().filter(e -> e.second.isAlias()).map(e -> e.second.getTarget())
+                .filter(target -> !target.isEmpty()).findFirst().orElse(null);
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<BeanDeclaration> findDeclaredBean(String name,
+        List<Pair<VirtualFile, BeanIndexEntry>> entries) {
+        return entries.stream().filter(e -> !e.second.isAlias())
+            .map(e -> new BeanDeclaration(e.first, name, e.second)).findFirst();
+    }
+
+    /**
+     * Collects all bean ids, names and aliases declared in given files.
+     */
+    public static Map<String, BeanIndexEntry> getBeanNames(Project project, Collection<VirtualFile> files) {
+        Map<String, BeanIndexEntry> names = new HashMap<>();
+        for (VirtualFile file : files) {
+            names.putAll(FileBasedIndex.getInstance().getFileData(NAME, file, project));
+        }
+        return names;
+    }
+
+    private static List<Pair<VirtualFile, BeanIndexEntry>> getEntries(String name, GlobalSearchScope scope) {
+        List<Pair<VirtualFile, BeanIndexEntry>> entries = new ArrayList<>();
+        FileBasedIndex.getInstance().processValues(NAME, name, null, (file, value) -> {
+            entries.add(Pair.create(file, value));
+            return true;
+        }, scope);
+        return entries;
+    }
+
+    public static XmlTag getDeclarationTag(Project project, VirtualFile file, BeanIndexEntry entry) {
+        PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+        if (psiFile == null) {
+            return null;
+        }
+        XmlTag tag = PsiTreeUtil.getParentOfType(psiFile.findElementAt(entry.getOffset()), XmlTag.class, false);
+        String expectedName = entry.isAlias() ? ALIAS : BEAN;
+        return tag != null && expectedName.equals(tag.getLocalName()) ? tag : null;
+    }
+}
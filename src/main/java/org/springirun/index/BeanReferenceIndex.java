@@ -0,0 +1,148 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.index;
+
+import com.intellij.ide.highlighter.XmlFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.xml.XmlAttribute;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.psi.xml.XmlTag;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.EnumeratorIntegerDescriptor;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+import org.springirun.completion.SpringirunCompletionUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.springirun.completion.SpringirunCompletionUtils.ALIAS;
+import static org.springirun.completion.SpringirunCompletionUtils.BEAN;
+import static org.springirun.completion.SpringirunCompletionUtils.BEAN_NAMESPACE;
+import static org.springirun.completion.SpringirunCompletionUtils.BEAN_REF;
+import static org.springirun.completion.SpringirunCompletionUtils.FACTORY_BEAN;
+import static org.springirun.completion.SpringirunCompletionUtils.PARENT;
+import static org.springirun.completion.SpringirunCompletionUtils.PROPERTY;
+import static org.springirun.completion.SpringirunCompletionUtils.P_NAMESPACE;
+import static org.springirun.completion.SpringirunCompletionUtils.REF;
+import static org.springirun.completion.SpringirunCompletionUtils.VALUE_REF;
+import static org.springirun.completion.SpringirunCompletionUtils._REF;
+
+/**
+ * Index of bean names referenced from Spring configuration files, with number of references per file. The same
+ * attributes as bean references of {@link org.springirun.reference.SpringirunReferenceContributor} are indexed.
+ *
+ * @author Andrii Borovyk
+ */
+public class BeanReferenceIndex extends FileBasedIndexExtension<String, Integer> {
+
+    public static final ID<String, Integer> NAME = ID.create("springirun.beanReference");
+
+    @NotNull
+    @Override
+    public ID<String, Integer> getName() {
+        return NAME;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, Integer, FileContent> getIndexer() {
+        return inputData -> {
+            Map<String, Integer> result = new HashMap<>();
+            if (!SpringFileIndex.isSpringFile(inputData)) {
+                return result;
+            }
+            PsiFile psiFile = inputData.getPsiFile();
+            XmlTag rootTag = psiFile instanceof XmlFile ? ((XmlFile) psiFile).getRootTag() : null;
+            if (rootTag != null) {
+                indexTag(rootTag, result);
+            }
+            return result;
+        };
+    }
+
+    private static void indexTag(XmlTag tag, Map<String, Integer> result) {
+        for (XmlAttribute attribute : tag.getAttributes()) {
+            if (isBeanReference(tag, attribute) && !StringUtil.isEmptyOrSpaces(attribute.getValue())) {
+                result.merge(attribute.getValue().trim(), 1, Integer::sum);
+            }
+        }
+        for (XmlTag subTag : tag.getSubTags()) {
+            indexTag(subTag, result);
+        }
+    }
+
+    private static boolean isBeanReference(XmlTag tag, XmlAttribute attribute) {
+        String name = attribute.getLocalName();
+        if (P_NAMESPACE.equals(attribute.getNamespace())) {
+            return name.endsWith(_REF);
+        }
+        if (VALUE_REF.equals(name) || BEAN_REF.equals(name) || PARENT.equals(name) || FACTORY_BEAN.equals(name)) {
+            return true;
+        }
+        if (!BEAN_NAMESPACE.equals(tag.getNamespace())) {
+            return false;
+        }
+        return REF.equals(tag.getLocalName()) && BEAN.equals(name)
+            || PROPERTY.equals(tag.getLocalName()) && REF.equals(name)
+            || ALIAS.equals(tag.getLocalName()) && SpringirunCompletionUtils.NAME.equals(name);
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<Integer> getValueExternalizer() {
+        return EnumeratorIntegerDescriptor.INSTANCE;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(XmlFileType.INSTANCE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * Referenced bean names of given file with number of references.
+     */
+    public static Map<String, Integer> getReferences(Project project, VirtualFile file) {
+        return FileBasedIndex.getInstance().getFileData(NAME, file, project);
+    }
+}
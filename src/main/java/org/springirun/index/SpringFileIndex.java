@@ -0,0 +1,113 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.index;
+
+import com.intellij.ide.highlighter.XmlFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.indexing.ScalarIndexExtension;
+import com.intellij.util.io.BooleanDataDescriptor;
+import com.intellij.util.io.KeyDescriptor;
+import com.intellij.util.text.CharSequenceReader;
+import com.intellij.util.xml.NanoXmlUtil;
+import com.intellij.util.xml.XmlFileHeader;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+
+import static org.springirun.completion.SpringirunCompletionUtils.BEANS;
+import static org.springirun.completion.SpringirunCompletionUtils.BEAN_NAMESPACE;
+
+/**
+ * Index of Spring configuration files, i.e. files with {@code beans} root tag of Spring beans namespace. Root tag
+ * is sniffed with streaming header parser, so neither indexing nor lookup builds PSI of other XML files.
+ *
+ * @author Andrii Borovyk
+ */
+public class SpringFileIndex extends ScalarIndexExtension<Boolean> {
+
+    public static final ID<Boolean, Void> NAME = ID.create("springirun.springFile");
+
+    @NotNull
+    @Override
+    public ID<Boolean, Void> getName() {
+        return NAME;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<Boolean, Void, FileContent> getIndexer() {
+        return inputData -> isSpringFile(inputData) ? Collections.<Boolean, Void>singletonMap(Boolean.TRUE, null)
+            : Collections.<Boolean, Void>emptyMap();
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<Boolean> getKeyDescriptor() {
+        return BooleanDataDescriptor.INSTANCE;
+    }
+
+    @Override
+    public int getVersion() {
+        return 1;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(XmlFileType.INSTANCE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * Whether indexed content is a Spring configuration file. Reads only the header of file up to its root tag, so
+     * Springirun indexers call it before building PSI of the content.
+     */
+    public static boolean isSpringFile(FileContent content) {
+        return isSpringFileHeader(NanoXmlUtil.parseHeader(new CharSequenceReader(content.getContentAsText())));
+    }
+
+    public static boolean isSpringFileHeader(XmlFileHeader header) {
+        return BEANS.equals(header.getRootTagLocalName()) && BEAN_NAMESPACE.equals(header.getRootTagNamespace());
+    }
+
+    /**
+     * Whether given file is a Spring configuration file, according to the index.
+     */
+    public static boolean isSpringFile(Project project, VirtualFile file) {
+        Map<Boolean, Void> data = FileBasedIndex.getInstance().getFileData(NAME, file, project);
+        return data.containsKey(Boolean.TRUE);
+    }
+
+    /**
+     * All Spring configuration files in given scope.
+     */
+    public static Collection<VirtualFile> getSpringFiles(GlobalSearchScope scope) {
+        return FileBasedIndex.getInstance().getContainingFiles(NAME, Boolean.TRUE, scope);
+    }
+}
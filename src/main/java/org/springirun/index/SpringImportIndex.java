@@ -0,0 +1,192 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.index;
+
+import com.intellij.ide.highlighter.XmlFileType;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.psi.xml.XmlTag;
+import com.intellij.util.PathUtil;
+import com.intellij.util.indexing.DataIndexer;
+import com.intellij.util.indexing.DefaultFileTypeSpecificInputFilter;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.indexing.FileBasedIndexExtension;
+import com.intellij.util.indexing.FileContent;
+import com.intellij.util.indexing.ID;
+import com.intellij.util.io.DataExternalizer;
+import com.intellij.util.io.DataInputOutputUtil;
+import com.intellij.util.io.EnumeratorStringDescriptor;
+import com.intellij.util.io.IOUtil;
+import com.intellij.util.io.KeyDescriptor;
+import org.jetbrains.annotations.NotNull;
+import org.springirun.search.WildcardResourceSearchStrategy;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.springirun.completion.SpringirunCompletionUtils.BEANS;
+import static org.springirun.completion.SpringirunCompletionUtils.IMPORT;
+import static org.springirun.completion.SpringirunCompletionUtils.RESOURCE;
+
+/**
+ * Index of file names imported by Spring configuration files, with import locations importing each name. Lets find
+ * candidates importing given file and follow imports without parsing any XML.
+ *
+ * @author Andrii Borovyk
+ */
+public class SpringImportIndex extends FileBasedIndexExtension<String, List<String>> {
+
+    public static final ID<String, List<String>> NAME = ID.create("springirun.import");
+
+    private static final DataExternalizer<List<String>> LOCATIONS_EXTERNALIZER =
+        new DataExternalizer<List<String>>() {
+            @Override
+            public void save(final DataOutput out, final List<String> value) throws IOException {
+                DataInputOutputUtil.writeINT(out, value.size());
+                for (String location : value) {
+                    IOUtil.writeUTF(out, location);
+                }
+            }
+
+            @Override
+            public List<String> read(final DataInput in) throws IOException {
+                int size = DataInputOutputUtil.readINT(in);
+                List<String> locations = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    locations.add(IOUtil.readUTF(in));
+                }
+                return locations;
+            }
+        };
+
+    /**
+     * Key of files having import with wildcard in file name, these can import any file.
+     */
+    private static final String WILDCARD_IMPORT_KEY = "<*>";
+
+    @NotNull
+    @Override
+    public ID<String, List<String>> getName() {
+        return NAME;
+    }
+
+    @NotNull
+    @Override
+    public DataIndexer<String, List<String>, FileContent> getIndexer() {
+        return inputData -> {
+            Map<String, List<String>> result = new HashMap<>();
+            if (!SpringFileIndex.isSpringFile(inputData)) {
+                return result;
+            }
+            PsiFile psiFile = inputData.getPsiFile();
+            XmlTag rootTag = psiFile instanceof XmlFile ? ((XmlFile) psiFile).getRootTag() : null;
+            if (rootTag != null) {
+                indexBeansTag(rootTag, result);
+            }
+            return result;
+        };
+    }
+
+    private static void indexBeansTag(XmlTag beansTag, Map<String, List<String>> result) {
+        for (XmlTag tag : beansTag.getSubTags()) {
+            if (IMPORT.equals(tag.getLocalName())) {
+                String resource = tag.getAttributeValue(RESOURCE);
+                if (StringUtil.isEmptyOrSpaces(resource)) {
+                    continue;
+                }
+                String fileName = PathUtil.getFileName(resource.substring(resource.indexOf(':') + 1).trim());
+                String key = WildcardResourceSearchStrategy.isPattern(fileName) ? WILDCARD_IMPORT_KEY : fileName;
+                result.computeIfAbsent(key, k -> new ArrayList<>()).add(resource);
+            } else if (BEANS.equals(tag.getLocalName())) {
+                indexBeansTag(tag, result);
+            }
+        }
+    }
+
+    @NotNull
+    @Override
+    public KeyDescriptor<String> getKeyDescriptor() {
+        return EnumeratorStringDescriptor.INSTANCE;
+    }
+
+    @NotNull
+    @Override
+    public DataExternalizer<List<String>> getValueExternalizer() {
+        return LOCATIONS_EXTERNALIZER;
+    }
+
+    @Override
+    public int getVersion() {
+        return 3;
+    }
+
+    @NotNull
+    @Override
+    public FileBasedIndex.InputFilter getInputFilter() {
+        return new DefaultFileTypeSpecificInputFilter(XmlFileType.INSTANCE);
+    }
+
+    @Override
+    public boolean dependsOnFileContent() {
+        return true;
+    }
+
+    /**
+     * Configuration files which could import given file: files importing its name and files with wildcard imports.
+     */
+    public static Collection<VirtualFile> getImportCandidates(VirtualFile file, GlobalSearchScope scope) {
+        Collection<VirtualFile> candidates = new LinkedHashSet<VirtualFile>(
+            FileBasedIndex.getInstance().getContainingFiles(NAME, file.getName(), scope));
+        candidates.addAll(FileBasedIndex.getInstance().getContainingFiles(NAME, WILDCARD_IMPORT_KEY, scope));
+        candidates.remove(file);
+        return candidates;
+    }
+
+    /**
+     * Import locations of given file, as written in its import tags.
+     */
+    public static Collection<String> getImportLocations(Project project, VirtualFile file) {
+        Collection<String> locations = new LinkedHashSet<String>();
+        for (List<String> fileLocations : FileBasedIndex.getInstance().getFileData(NAME, file, project).values()) {
+            locations.addAll(fileLocations);
+        }
+        return locations;
+    }
+
+    /**
+     * Import locations of given importer which could resolve to file with given name: locations ending with the
+     * name and locations with wildcard in file name.
+     */
+    public static Collection<String> getImportLocations(Project project, VirtualFile importer, String fileName) {
+        Map<String, List<String>> data = FileBasedIndex.getInstance().getFileData(NAME, importer, project);
+        Collection<String> locations = new LinkedHashSet<String>(
+            data.getOrDefault(fileName, Collections.<String>emptyList()));
+        locations.addAll(data.getOrDefault(WILDCARD_IMPORT_KEY, Collections.<String>emptyList()));
+        return locations;
+    }
+}
@@ -18,6 +18,7 @@ package org.springirun.model;
 import com.intellij.util.xml.Attribute;
 import com.intellij.util.xml.DomElement;
 import com.intellij.util.xml.GenericAttributeValue;
+import com.intellij.util.xml.Stubbed;
 import org.jetbrains.annotations.Nullable;
 
 /**
@@ -28,10 +29,12 @@ import org.jetbrains.annotations.Nullable;
 public interface Alias extends DomElement {
 
     @Attribute ("alias")
+    @Stubbed
     @Nullable
     public GenericAttributeValue<String> getAlias();
 
     @Attribute("name")
+    @Stubbed
     @Nullable
     public GenericAttributeValue<String> getName();
 
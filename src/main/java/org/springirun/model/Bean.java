@@ -22,6 +22,7 @@ import com.intellij.psi.xml.XmlElement;
 import com.intellij.util.xml.Attribute;
 import com.intellij.util.xml.DomElement;
 import com.intellij.util.xml.GenericAttributeValue;
+import com.intellij.util.xml.Stubbed;
 import org.jetbrains.annotations.Nullable;
 
 /**
@@ -32,18 +33,32 @@ import org.jetbrains.annotations.Nullable;
 public interface Bean extends DomElement {
 
     @Attribute("id")
+    @Stubbed
     @Nullable
     public GenericAttributeValue<String> getId();
 
     @Attribute("name")
+    @Stubbed
     @Nullable
     public GenericAttributeValue<String> getName();
 
     @Attribute("parent")
+    @Stubbed
     @Nullable
     public GenericAttributeValue<String> getParentBean();
 
     @Attribute("class")
+    @Stubbed
     public GenericAttributeValue<PsiClass> getClazz();
 
+    @Attribute("factory-bean")
+    @Stubbed
+    @Nullable
+    public GenericAttributeValue<String> getFactoryBean();
+
+    @Attribute("factory-method")
+    @Stubbed
+    @Nullable
+    public GenericAttributeValue<String> getFactoryMethod();
+
 }
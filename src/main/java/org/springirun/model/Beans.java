@@ -39,9 +39,18 @@ public interface Beans extends DomElement {
 
 
     @SubTagList("bean")
+    @Stubbed
     List<Bean> getBeans();
 
     @SubTagList("alias")
+    @Stubbed
     List<Alias> getAliases();
 
+    /**
+     * Nested beans elements, e.g. profile specific ones.
+     */
+    @SubTagList("beans")
+    @Stubbed
+    List<Beans> getNestedBeans();
+
 }
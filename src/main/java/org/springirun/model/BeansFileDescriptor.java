@@ -17,10 +17,11 @@ package org.springirun.model;
 
 import com.intellij.openapi.module.Module;
 import com.intellij.psi.xml.XmlFile;
-import com.intellij.psi.xml.XmlTag;
 import com.intellij.util.xml.DomFileDescription;
+import com.intellij.util.xml.DomService;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.springirun.index.SpringFileIndex;
 
 /**
  * Information about class functionality.
@@ -33,9 +34,12 @@ public class BeansFileDescriptor extends DomFileDescription<Beans> {
         super(Beans.class, "beans");
     }
 
+    /**
+     * Root tag name and namespace are read from file header, so that neither files restored from DOM stubs nor
+     * other XML files are parsed.
+     */
     @Override
-    public boolean isMyFile(@NotNull XmlFile file, @Nullable    Module module) {
-        XmlTag rootTag = file.getRootTag();
-        return rootTag != null && rootTag.getName().equals(getRootTagName());
+    public boolean isMyFile(@NotNull XmlFile file, @Nullable Module module) {
+        return SpringFileIndex.isSpringFileHeader(DomService.getInstance().getXmlFileHeader(file));
     }
 }
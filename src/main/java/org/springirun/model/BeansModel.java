@@ -0,0 +1,35 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.model;
+
+import com.intellij.openapi.util.text.StringUtil;
+
+/**
+ * Parsing of attribute values of beans files.
+ *
+ * @author Andrii Borovyk
+ */
+public class BeansModel {
+
+    private static final String NAME_DELIMITERS = ",; ";
+
+    /**
+     * Names listed in bean {@code name} attribute, separated by commas, semicolons or spaces.
+     */
+    public static Iterable<String> splitNames(String names) {
+        return StringUtil.tokenize(names, NAME_DELIMITERS);
+    }
+}
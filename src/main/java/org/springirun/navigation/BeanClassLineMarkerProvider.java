@@ -0,0 +1,68 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.navigation;
+
+import com.intellij.codeInsight.daemon.RelatedItemLineMarkerInfo;
+import com.intellij.codeInsight.daemon.RelatedItemLineMarkerProvider;
+import com.intellij.codeInsight.navigation.NavigationGutterIconBuilder;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.NotNullLazyValue;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiIdentifier;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.ClassUtil;
+import org.jetbrains.annotations.NotNull;
+import org.springirun.completion.SpringirunCompletionUtils;
+import org.springirun.index.BeanClassIndex;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Gutter navigation from Java class to XML beans of this class. Markers are collected in slow pass from
+ * {@link BeanClassIndex} only, declaring XML files are parsed once navigation targets are requested.
+ *
+ * @author Andrii Borovyk
+ */
+public class BeanClassLineMarkerProvider extends RelatedItemLineMarkerProvider {
+
+    @Override
+    protected void collectNavigationMarkers(@NotNull final PsiElement element,
+        @NotNull final Collection<? super RelatedItemLineMarkerInfo<?>> result) {
+        if (!(element instanceof PsiIdentifier) || !(element.getParent() instanceof PsiClass)) {
+            return;
+        }
+        PsiClass psiClass = (PsiClass) element.getParent();
+        if (psiClass.getNameIdentifier() != element || psiClass.getQualifiedName() == null) {
+            return;
+        }
+        Project project = element.getProject();
+        Set<String> classNames = new LinkedHashSet<String>();
+        classNames.add(psiClass.getQualifiedName());
+        classNames.add(ClassUtil.getJVMClassName(psiClass));
+        classNames.remove(null);
+        GlobalSearchScope scope = GlobalSearchScope.projectScope(project);
+        if (!BeanClassIndex.hasBeans(classNames, scope)) {
+            return;
+        }
+        NotNullLazyValue<Collection<? extends PsiElement>> targets =
+            NotNullLazyValue.createValue(() -> BeanClassIndex.findBeanTags(project, classNames, scope));
+        result.add(NavigationGutterIconBuilder.create(SpringirunCompletionUtils.BEAN_ICON).setTargets(targets)
+            .setTooltipText("Navigate to Spring bean definitions").createLineMarkerInfo(element));
+    }
+}
@@ -17,13 +17,11 @@ package org.springirun.reference;
 
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiReferenceBase;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.psi.xml.XmlAttribute;
 import org.jetbrains.annotations.NotNull;
 import org.springirun.completion.SpringirunCompletionUtils;
-import org.springirun.model.Alias;
-import org.springirun.model.Bean;
-import org.springirun.model.Beans;
 
 import java.util.Optional;
 import java.util.function.Predicate;
@@ -37,6 +35,9 @@ import java.util.stream.Stream;
  */
 public class BeanIdReference extends PsiReferenceBase<PsiElement> {
 
+    private static final ResolveCache.AbstractResolver<BeanIdReference, PsiElement> RESOLVER =
+        (reference, incompleteCode) -> ResolveCount.counted(reference.resolveInner());
+
     private PsiElement bean;
 
     public BeanIdReference(@NotNull final PsiElement element) {
@@ -45,14 +46,13 @@ public class BeanIdReference extends PsiReferenceBase<PsiElement> {
 
     @Override
     public PsiElement resolve() {
+        return ResolveCache.getInstance(getElement().getProject()).resolveWithCaching(this, RESOLVER, false, false);
+    }
+
+    private PsiElement resolveInner() {
         Optional<XmlAttribute> attribute = SpringirunCompletionUtils.firstParentOf(XmlAttribute.class, getElement());
         if (attribute.isPresent()) {
-            final Optional<Beans> beans = SpringirunCompletionUtils.getDocumentRoot(attribute);
-
-            return SpringirunCompletionUtils.or(
-                () -> SpringirunCompletionUtils.resolveBeanByName(beans, attribute.get().getValue()),
-                () -> SpringirunCompletionUtils.resolveBeanByAlias(beans, attribute.get().getValue())
-            ).map(Bean::getXmlElement).orElse(null);
+            return SpringirunCompletionUtils.resolveBeanTag(attribute.get(), attribute.get().getValue()).orElse(null);
         }
         return null;
     }
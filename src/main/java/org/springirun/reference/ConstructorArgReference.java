@@ -3,6 +3,7 @@ package org.springirun.reference;
 import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiReferenceBase;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
 import com.intellij.psi.util.PsiTreeUtil;
 import com.intellij.psi.xml.XmlAttribute;
 import com.intellij.psi.xml.XmlAttributeValue;
@@ -17,12 +18,19 @@ import java.util.stream.Collectors;
 
 public class ConstructorArgReference extends PsiReferenceBase<PsiElement> {
 
+  private static final ResolveCache.AbstractResolver<ConstructorArgReference, PsiElement> RESOLVER =
+      (reference, incompleteCode) -> ResolveCount.counted(reference.resolveInner());
 
   public ConstructorArgReference(@NotNull PsiElement element) {
     super(element);
   }
 
   @Override public PsiElement resolve() {
+    return ResolveCache.getInstance(getElement().getProject())
+        .resolveWithCaching(this, RESOLVER, false, false);
+  }
+
+  private PsiElement resolveInner() {
     Optional<XmlAttribute> attribute = firstParentOf(XmlAttribute.class, myElement);
     Optional<XmlTag> bean = firstParentOf(XmlTag.class, attribute, tagWithName(BEAN));
 
@@ -26,6 +26,7 @@ import com.intellij.psi.PsiManager;
 import com.intellij.psi.PsiReference;
 import com.intellij.psi.PsiReferenceBase;
 import com.intellij.psi.ResolveResult;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
 import com.intellij.psi.impl.source.xml.XmlFileImpl;
 import com.intellij.psi.xml.XmlAttribute;
 import com.intellij.psi.xml.XmlElementType;
@@ -48,6 +49,9 @@ import static org.springirun.completion.SpringirunCompletionUtils.*;
  */
 public class ImportReference extends PsiReferenceBase.Poly<PsiElement> {
 
+    private static final ResolveCache.PolyVariantResolver<ImportReference> RESOLVER =
+        (reference, incompleteCode) -> ResolveCount.counted(reference.multiResolveInner());
+
     private ResourceSearchStrategySelector resourceSearchStrategySelector = new ResourceSearchStrategySelector();
 
     public ImportReference(@NotNull final PsiElement element) {
@@ -57,6 +61,12 @@ public class ImportReference extends PsiReferenceBase.Poly<PsiElement> {
     @NotNull
     @Override
     public ResolveResult[] multiResolve(final boolean incompleteCode) {
+        return ResolveCache.getInstance(getElement().getProject())
+            .resolveWithCaching(this, RESOLVER, false, incompleteCode);
+    }
+
+    @NotNull
+    private ResolveResult[] multiResolveInner() {
 
         ArrayList<ResolveResult> resolvedResults = new ArrayList<>();
         Optional<XmlAttribute> attribute = firstParentOf(XmlAttribute.class, myElement);
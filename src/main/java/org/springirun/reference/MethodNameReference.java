@@ -20,6 +20,7 @@ import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiReferenceBase;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
 import com.intellij.psi.xml.XmlAttribute;
 import com.intellij.psi.xml.XmlAttributeValue;
 import com.intellij.psi.xml.XmlTag;
@@ -37,12 +38,20 @@ import java.util.Optional;
  */
 public class MethodNameReference extends PsiReferenceBase<PsiElement> {
 
+  private static final ResolveCache.AbstractResolver<MethodNameReference, PsiElement> RESOLVER =
+      (reference, incompleteCode) -> ResolveCount.counted(reference.resolveInner());
+
 
   public MethodNameReference(@NotNull PsiElement element) {
     super(element);
   }
 
   @Override public PsiElement resolve() {
+    return ResolveCache.getInstance(getElement().getProject())
+        .resolveWithCaching(this, RESOLVER, false, false);
+  }
+
+  private PsiElement resolveInner() {
 
     Optional<XmlAttribute> attribute = firstParentOf(XmlAttribute.class, myElement);
     Optional<XmlTag> bean = firstParentOf(XmlTag.class, attribute, tagWithName(BEAN));
@@ -21,6 +21,7 @@ import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiReferenceBase;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
 import com.intellij.psi.impl.source.xml.XmlAttributeImpl;
 import com.intellij.psi.xml.XmlAttribute;
 import com.intellij.psi.xml.XmlTag;
@@ -38,12 +39,19 @@ import static org.springirun.completion.SpringirunCompletionUtils.*;
  */
 public class PContextReference extends PsiReferenceBase<PsiElement> {
 
+    private static final ResolveCache.AbstractResolver<PContextReference, PsiElement> RESOLVER =
+        (reference, incompleteCode) -> ResolveCount.counted(reference.resolveInner());
+
     public PContextReference(@NotNull PsiElement element) {
         super(element);
     }
 
     @Override
     public PsiElement resolve() {
+        return ResolveCache.getInstance(getElement().getProject()).resolveWithCaching(this, RESOLVER, false, false);
+    }
+
+    private PsiElement resolveInner() {
 
         Optional<XmlAttribute> attribute = firstParentOf(XmlAttribute.class, myElement);
         Optional<XmlTag> bean = firstParentOf(XmlTag.class, attribute, tagWithName(BEAN));
@@ -20,6 +20,7 @@ import com.intellij.psi.PsiClass;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiMethod;
 import com.intellij.psi.PsiReferenceBase;
+import com.intellij.psi.impl.source.resolve.ResolveCache;
 import com.intellij.psi.xml.XmlAttribute;
 import com.intellij.psi.xml.XmlAttributeValue;
 import com.intellij.psi.xml.XmlTag;
@@ -38,6 +39,9 @@ import static org.springirun.completion.SpringirunCompletionUtils.resolveSetterM
  */
 public class PNameReference extends PsiReferenceBase<PsiElement> {
 
+    private static final ResolveCache.AbstractResolver<PNameReference, PsiElement> RESOLVER =
+        (reference, incompleteCode) -> ResolveCount.counted(reference.resolveInner());
+
     private PsiMethod resolvedMethod;
 
     public PNameReference(@NotNull PsiElement element) {
@@ -46,6 +50,10 @@ public class PNameReference extends PsiReferenceBase<PsiElement> {
 
     @Override
     public PsiElement resolve() {
+        return ResolveCache.getInstance(getElement().getProject()).resolveWithCaching(this, RESOLVER, false, false);
+    }
+
+    private PsiElement resolveInner() {
         Optional<XmlAttribute> attribute = firstParentOf(XmlAttribute.class, myElement);
         Optional<XmlTag> bean = firstParentOf(XmlTag.class, attribute, tagWithName(BEAN));
 
@@ -0,0 +1,48 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.reference;
+
+import com.intellij.psi.impl.source.resolve.ResolveCache;
+import org.jetbrains.annotations.TestOnly;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Number of reference resolves not served from {@link ResolveCache}, so tests can check that references are
+ * resolved once per PSI modification.
+ *
+ * @author Andrii Borovyk
+ */
+final class ResolveCount {
+
+    private static final AtomicInteger COUNT = new AtomicInteger();
+
+    private ResolveCount() {
+    }
+
+    /**
+     * Records one resolve and passes its result through.
+     */
+    static <T> T counted(T result) {
+        COUNT.incrementAndGet();
+        return result;
+    }
+
+    @TestOnly
+    static int get() {
+        return COUNT.get();
+    }
+}
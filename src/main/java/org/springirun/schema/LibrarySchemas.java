@@ -0,0 +1,52 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.schema;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Spring schemas declared by one library root: {@code META-INF/spring.schemas} mapping of schema url to the schema
+ * path inside of the root, together with library version.
+ *
+ * @author Andrii Borovyk
+ */
+public class LibrarySchemas {
+
+    public static final LibrarySchemas EMPTY = new LibrarySchemas(SpringSchemaScanner.DEFAULT_SCHEMA_VERSION,
+        Collections.emptyMap());
+
+    private final String version;
+
+    private final Map<String, String> schemaPaths;
+
+    public LibrarySchemas(final String version, final Map<String, String> schemaPaths) {
+        this.version = version;
+        this.schemaPaths = schemaPaths;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    public Map<String, String> getSchemaPaths() {
+        return schemaPaths;
+    }
+
+    public boolean isEmpty() {
+        return schemaPaths.isEmpty();
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.schema;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectManager;
+import com.intellij.openapi.vfs.JarFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Marks library roots of rewritten jar archives as changed, so their schemas are scanned again.
+ *
+ * @author Andrii Borovyk
+ */
+public class SpringSchemaArchiveListener implements BulkFileListener {
+
+    private static final String JAR_EXTENSION = "jar";
+
+    @Override
+    public void after(@NotNull final List<? extends VFileEvent> events) {
+        List<VirtualFile> roots = new ArrayList<VirtualFile>();
+        for (VFileEvent event : events) {
+            VirtualFile file = event.getFile();
+            if (event instanceof VFileContentChangeEvent && file != null
+                && JAR_EXTENSION.equalsIgnoreCase(file.getExtension())) {
+                VirtualFile root = JarFileSystem.getInstance().getJarRootForLocalFile(file);
+                if (root != null) {
+                    roots.add(root);
+                }
+            }
+        }
+        if (roots.isEmpty()) {
+            return;
+        }
+        for (Project project : ProjectManager.getInstance().getOpenProjects()) {
+            if (!project.isDisposed()) {
+                SpringSchemaUpdater.getInstance(project).rootsChanged(roots);
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.schema;
+
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.RoamingType;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jdom.Element;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Persistent cache of spring.schemas declarations and versions of library archives, keyed by archive path and
+ * time stamp. Only new or changed archives are read again on schemas import; archives removed from disk are dropped
+ * when the cache is loaded.
+ *
+ * @author Andrii Borovyk
+ */
+@State(
+        name = "SpringirunSchemaCache",
+        storages = @Storage(value = "springirunSchemaCache.xml", roamingType = RoamingType.DISABLED)
+)
+public class SpringSchemaCache implements PersistentStateComponent<Element> {
+
+    private static final Logger LOG = Logger.getInstance(SpringSchemaCache.class);
+
+    private final Map<String, CachedLibrarySchemas> libraries = new ConcurrentHashMap<String, CachedLibrarySchemas>();
+
+    public static SpringSchemaCache getInstance() {
+        return ServiceManager.getService(SpringSchemaCache.class);
+    }
+
+    /**
+     * Schemas of library root, read from the root only if archive is new or changed since last scan.
+     */
+    public LibrarySchemas getLibrarySchemas(@NotNull VirtualFile root) {
+        VirtualFile archive = VfsUtilCore.getVirtualFileForJar(root);
+        if (archive == null) {
+            return SpringSchemaScanner.scanRoot(root);
+        }
+        CachedLibrarySchemas cached = libraries.get(archive.getPath());
+        if (cached != null && cached.timeStamp == archive.getTimeStamp()) {
+            return cached.schemas;
+        }
+        LibrarySchemas schemas = SpringSchemaScanner.scanRoot(root);
+        libraries.put(archive.getPath(), new CachedLibrarySchemas(archive.getTimeStamp(), schemas));
+        return schemas;
+    }
+
+    @Override
+    public Element getState() {
+        Element state = new Element("SchemaCache");
+        for (Map.Entry<String, CachedLibrarySchemas> library : libraries.entrySet()) {
+            Element libraryElement = new Element("Library");
+            libraryElement.setAttribute("path", library.getKey());
+            libraryElement.setAttribute("timeStamp", String.valueOf(library.getValue().timeStamp));
+            libraryElement.setAttribute("version", library.getValue().schemas.getVersion());
+            for (Map.Entry<String, String> schema : library.getValue().schemas.getSchemaPaths().entrySet()) {
+                Element schemaElement = new Element("Schema");
+                schemaElement.setAttribute("url", schema.getKey());
+                schemaElement.setAttribute("path", schema.getValue());
+                libraryElement.addContent(schemaElement);
+            }
+            state.addContent(libraryElement);
+        }
+        return state;
+    }
+
+    @Override
+    public void loadState(@NotNull final Element state) {
+        libraries.clear();
+        for (Element libraryElement : state.getChildren("Library")) {
+            String path = libraryElement.getAttributeValue("path");
+            if (path == null || !new File(path).isFile()) {
+                continue;
+            }
+            try {
+                Map<String, String> schemaPaths = new HashMap<String, String>();
+                for (Element schemaElement : libraryElement.getChildren("Schema")) {
+                    schemaPaths.put(schemaElement.getAttributeValue("url"), schemaElement.getAttributeValue("path"));
+                }
+                libraries.put(path, new CachedLibrarySchemas(
+                    Long.parseLong(libraryElement.getAttributeValue("timeStamp")),
+                    new LibrarySchemas(libraryElement.getAttributeValue("version"), schemaPaths)));
+            } catch (NumberFormatException e) {
+                LOG.warn("Skipping cached schemas of " + path, e);
+            }
+        }
+    }
+
+    private static class CachedLibrarySchemas {
+
+        private final long timeStamp;
+
+        private final LibrarySchemas schemas;
+
+        CachedLibrarySchemas(final long timeStamp, final LibrarySchemas schemas) {
+            this.timeStamp = timeStamp;
+            this.schemas = schemas;
+        }
+    }
+}
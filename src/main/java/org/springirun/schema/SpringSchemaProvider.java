@@ -0,0 +1,94 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.schema;
+
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.UserDataHolder;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.util.xml.DomService;
+import com.intellij.xml.XmlSchemaProvider;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.springirun.search.ResourceScopes;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.springirun.completion.SpringirunCompletionUtils.BEAN_NAMESPACE;
+
+/**
+ * Resolves Spring schema urls from spring.schemas of libraries visible to the module of configuration file, so
+ * modules depending on different Spring versions get their own schemas. Schema table is built on first request and
+ * cached per module until project roots or library archives change.
+ *
+ * @author Andrii Borovyk
+ */
+public class SpringSchemaProvider extends XmlSchemaProvider {
+
+    private static final Key<CachedValue<Map<String, VirtualFile>>> SCHEMAS_KEY =
+        Key.create("springirun.moduleSchemas");
+
+    @Override
+    public boolean isAvailable(@NotNull final XmlFile file) {
+        return BEAN_NAMESPACE.equals(DomService.getInstance().getXmlFileHeader(file).getRootTagNamespace());
+    }
+
+    @Nullable
+    @Override
+    public XmlFile getSchema(@NotNull final String url, @Nullable final Module module,
+        @NotNull final PsiFile baseFile) {
+        Project project = baseFile.getProject();
+        Module schemaModule = module != null ? module : ModuleUtilCore.findModuleForPsiElement(baseFile);
+        Map<String, VirtualFile> schemas = schemaModule != null ?
+            getSchemas(project, schemaModule, ResourceScopes.getLibraryRoots(schemaModule)) :
+            getSchemas(project, project, ResourceScopes.getLibraryRoots(project));
+
+        VirtualFile schemaFile = schemas.get(url);
+        if (schemaFile == null || !schemaFile.isValid()) {
+            return null;
+        }
+        PsiFile psiFile = PsiManager.getInstance(project).findFile(schemaFile);
+        return psiFile instanceof XmlFile ? (XmlFile) psiFile : null;
+    }
+
+    private static Map<String, VirtualFile> getSchemas(Project project, UserDataHolder holder, VirtualFile[] roots) {
+        return CachedValuesManager.getManager(project).getCachedValue(holder, SCHEMAS_KEY,
+            () -> CachedValueProvider.Result.create(computeSchemas(roots), ProjectRootManager.getInstance(project),
+                SpringSchemaUpdater.getInstance(project).getModificationTracker()), false);
+    }
+
+    private static Map<String, VirtualFile> computeSchemas(VirtualFile[] roots) {
+        Map<VirtualFile, LibrarySchemas> librarySchemas = new HashMap<VirtualFile, LibrarySchemas>();
+        for (VirtualFile root : roots) {
+            LibrarySchemas schemas = SpringSchemaCache.getInstance().getLibrarySchemas(root);
+            if (!schemas.isEmpty()) {
+                librarySchemas.put(root, schemas);
+            }
+        }
+        return Collections.unmodifiableMap(SpringSchemaScanner.selectLatestSchemas(librarySchemas, url -> true));
+    }
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.schema;
+
+import com.intellij.concurrency.JobLauncher;
+import com.intellij.javaee.ExternalResourceManager;
+import com.intellij.javaee.ExternalResourceManagerEx;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.springirun.completion.SpringirunCompletionUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.jar.Attributes;
+import java.util.jar.Manifest;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Scanner of {@code META-INF/spring.schemas} declarations in library roots.
+ *
+ * @author Andrii Borovyk
+ */
+public class SpringSchemaScanner {
+
+    public static final String DEFAULT_SCHEMA_VERSION = "DEFAULT_SCHEMA_VERSION";
+
+    private static final String SPRING_SCHEMAS = "META-INF/spring.schemas";
+
+    private static final String MANIFEST = "META-INF/MANIFEST.MF";
+
+    private static final Pattern versionPattern = Pattern.compile("(\\d+.\\d+)");
+
+    /**
+     * Scans library roots and selects latest version of every declared schema.
+     *
+     * @return schema url to schema file of the latest library version declaring it
+     */
+    public static Map<String, VirtualFile> scan(Collection<VirtualFile> roots, ProgressIndicator indicator) {
+        Map<VirtualFile, LibrarySchemas> librarySchemas = scanLibraries(roots, indicator);
+        return ReadAction.compute(() -> selectLatestSchemas(librarySchemas, url -> true));
+    }
+
+    /**
+     * Scans library roots concurrently, each root under its own read action. Archives unchanged since previous scan
+     * are served from {@link SpringSchemaCache}.
+     *
+     * @return library roots declaring at least one schema
+     */
+    public static Map<VirtualFile, LibrarySchemas> scanLibraries(Collection<VirtualFile> roots,
+        ProgressIndicator indicator) {
+        List<VirtualFile> rootList = new ArrayList<VirtualFile>(roots);
+        Map<VirtualFile, LibrarySchemas> librarySchemas = new ConcurrentHashMap<VirtualFile, LibrarySchemas>();
+        AtomicInteger processed = new AtomicInteger();
+
+        indicator.setIndeterminate(false);
+        JobLauncher.getInstance().invokeConcurrentlyUnderProgress(rootList, indicator, root -> {
+            LibrarySchemas schemas = ReadAction.compute(() -> SpringSchemaCache.getInstance().getLibrarySchemas(root));
+            if (!schemas.isEmpty()) {
+                librarySchemas.put(root, schemas);
+            }
+            indicator.setFraction((double) processed.incrementAndGet() / rootList.size());
+            return true;
+        });
+        return librarySchemas;
+    }
+
+    /**
+     * Selects schema file of the latest library version for every accepted schema url. Must be called under read
+     * action.
+     */
+    public static Map<String, VirtualFile> selectLatestSchemas(Map<VirtualFile, LibrarySchemas> librarySchemas,
+        Predicate<String> urlFilter) {
+        Map<String, Map<String, VirtualFile>> schemasRouteMap = new HashMap<String, Map<String, VirtualFile>>();
+        for (Map.Entry<VirtualFile, LibrarySchemas> library : librarySchemas.entrySet()) {
+            for (Map.Entry<String, String> schema : library.getValue().getSchemaPaths().entrySet()) {
+                if (!urlFilter.test(schema.getKey())) {
+                    continue;
+                }
+                VirtualFile schemaFile = library.getKey().findFileByRelativePath(schema.getValue());
+                if (schemaFile != null) {
+                    schemasRouteMap.computeIfAbsent(schema.getKey(), k -> new HashMap<String, VirtualFile>())
+                        .put(library.getValue().getVersion(), schemaFile);
+                }
+            }
+        }
+
+        Map<String, VirtualFile> schemas = new HashMap<String, VirtualFile>();
+        for (Map.Entry<String, Map<String, VirtualFile>> schemaRouteEntry : schemasRouteMap.entrySet()) {
+            VirtualFile schemaFile = getLastVersion(schemaRouteEntry.getValue());
+            if (schemaFile != null) {
+                schemas.put(schemaRouteEntry.getKey(), schemaFile);
+            }
+        }
+        return schemas;
+    }
+
+    /**
+     * Reads spring.schemas declarations and version of single library root.
+     */
+    public static LibrarySchemas scanRoot(VirtualFile root) {
+        VirtualFile springSchemasFile = root.findFileByRelativePath(SPRING_SCHEMAS);
+        if (springSchemasFile == null) {
+            return LibrarySchemas.EMPTY;
+        }
+        try (InputStream inputStream = springSchemasFile.getInputStream()) {
+            Properties springFileSchemas = new Properties();
+            springFileSchemas.load(inputStream);
+            Map<String, String> schemaPaths = new HashMap<String, String>();
+            for (String schemaName : springFileSchemas.stringPropertyNames()) {
+                schemaPaths.put(schemaName, springFileSchemas.getProperty(schemaName));
+            }
+            return new LibrarySchemas(retrieveSchemaVersion(root), schemaPaths);
+        }
+        catch (IOException e) {
+            return LibrarySchemas.EMPTY;
+        }
+    }
+
+    private static String retrieveSchemaVersion(VirtualFile file) {
+        VirtualFile mfFile = file.findFileByRelativePath(MANIFEST);
+
+        if (mfFile != null) {
+            try (InputStream inputStream = mfFile.getInputStream()) {
+                Attributes mainAttributes = new Manifest(inputStream).getMainAttributes();
+                String version = mainAttributes.getValue("Implementation-Version");
+                if (version != null) {
+                    return version;
+                }
+            }
+            catch (IOException e) {
+            }
+        }
+        return DEFAULT_SCHEMA_VERSION;
+    }
+
+    private static VirtualFile getLastVersion(Map<String, VirtualFile> schemaVersionMap) {
+        VirtualFile file = null;
+        double majorVersion = -1;
+        for (Map.Entry<String, VirtualFile> schemaVersionEntry : schemaVersionMap.entrySet()) {
+            double version = 0;
+            Matcher matcher = versionPattern.matcher(schemaVersionEntry.getKey());
+            if (matcher.find()) {
+                try {
+                    version = Double.parseDouble(matcher.group(1));
+                }
+                catch (NumberFormatException e) {
+                }
+            }
+            if (version > majorVersion) {
+                majorVersion = version;
+                file = schemaVersionEntry.getValue();
+            }
+        }
+        return file;
+    }
+
+    /**
+     * Registers schema files in external resource manager, must be called from EDT.
+     */
+    public static void registerSchemas(Map<String, VirtualFile> schemas) {
+        updateSchemas(schemas, Collections.emptySet());
+    }
+
+    /**
+     * Registers schema files and unregisters removed schema urls in one write action, must be called from EDT.
+     */
+    public static void updateSchemas(Map<String, VirtualFile> schemas, Collection<String> removedUrls) {
+        ApplicationManager.getApplication().runWriteAction(() -> {
+            ExternalResourceManagerEx.getInstanceEx().addIgnoredResource(SpringirunCompletionUtils.P_NAMESPACE);
+            for (String url : removedUrls) {
+                ExternalResourceManager.getInstance().removeResource(url);
+            }
+            for (Map.Entry<String, VirtualFile> schema : schemas.entrySet()) {
+                ExternalResourceManager.getInstance()
+                    .addResource(schema.getKey(), schema.getValue().getCanonicalPath());
+            }
+        });
+    }
+}
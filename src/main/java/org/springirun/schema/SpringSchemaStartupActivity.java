@@ -0,0 +1,42 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.schema;
+
+import com.intellij.javaee.ExternalResourceManagerEx;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.StartupActivity;
+import org.jetbrains.annotations.NotNull;
+import org.springirun.completion.SpringirunCompletionUtils;
+
+/**
+ * Warms up schemas of project libraries once project is opened. The p-namespace has no schema, so it is marked as
+ * ignored resource.
+ *
+ * @author Andrii Borovyk
+ */
+public class SpringSchemaStartupActivity implements StartupActivity.DumbAware {
+
+    @Override
+    public void runActivity(@NotNull final Project project) {
+        ExternalResourceManagerEx resourceManager = ExternalResourceManagerEx.getInstanceEx();
+        if (!resourceManager.isIgnoredResource(SpringirunCompletionUtils.P_NAMESPACE)) {
+            ApplicationManager.getApplication().invokeLater(() -> ApplicationManager.getApplication()
+                .runWriteAction(() -> resourceManager.addIgnoredResource(SpringirunCompletionUtils.P_NAMESPACE)));
+        }
+        SpringSchemaUpdater.getInstance(project).scheduleUpdate();
+    }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.schema;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.SimpleModificationTracker;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.Alarm;
+import com.intellij.util.ui.update.MergingUpdateQueue;
+import com.intellij.util.ui.update.Update;
+import org.jetbrains.annotations.NotNull;
+import org.springirun.search.ResourceScopes;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Keeps spring.schemas of project libraries warm in {@link SpringSchemaCache}. Root changes are debounced and only
+ * added or rewritten library roots are scanned in background; {@link SpringSchemaProvider} tables are dropped
+ * through modification tracker once scanned schemas differ.
+ * <p/>
+ * All state is confined to EDT.
+ *
+ * @author Andrii Borovyk
+ */
+public class SpringSchemaUpdater implements Disposable {
+
+    private static final int UPDATE_DELAY = 1000;
+
+    private final Project project;
+
+    private final MergingUpdateQueue updateQueue;
+
+    private final SimpleModificationTracker schemasModificationTracker = new SimpleModificationTracker();
+
+    private final Set<VirtualFile> knownRoots = new HashSet<VirtualFile>();
+
+    private final Map<VirtualFile, LibrarySchemas> rootSchemas = new HashMap<VirtualFile, LibrarySchemas>();
+
+    private final Set<VirtualFile> changedRoots = new HashSet<VirtualFile>();
+
+    private boolean updateInProgress;
+
+    private boolean updatePending;
+
+    public SpringSchemaUpdater(final Project project) {
+        this.project = project;
+        this.updateQueue = new MergingUpdateQueue("Springirun schemas", UPDATE_DELAY, true, null, this, null,
+            Alarm.ThreadToUse.SWING_THREAD);
+    }
+
+    public static SpringSchemaUpdater getInstance(Project project) {
+        return ServiceManager.getService(project, SpringSchemaUpdater.class);
+    }
+
+    /**
+     * Tracker incremented whenever schemas declared by an already known library root change.
+     */
+    public ModificationTracker getModificationTracker() {
+        return schemasModificationTracker;
+    }
+
+    /**
+     * Schedules comparison of project library roots with already scanned ones. Bursts of calls are merged.
+     */
+    public void scheduleUpdate() {
+        updateQueue.queue(Update.create(this, this::update));
+    }
+
+    /**
+     * Marks library roots whose content has changed, so that they are scanned again on next update.
+     */
+    public void rootsChanged(Collection<VirtualFile> roots) {
+        boolean known = false;
+        for (VirtualFile root : roots) {
+            if (knownRoots.contains(root)) {
+                changedRoots.add(root);
+                known = true;
+            }
+        }
+        if (known) {
+            scheduleUpdate();
+        }
+    }
+
+    private void update() {
+        if (project.isDisposed()) {
+            return;
+        }
+        if (updateInProgress) {
+            updatePending = true;
+            return;
+        }
+        Set<VirtualFile> currentRoots = new LinkedHashSet<VirtualFile>(
+            Arrays.asList(ResourceScopes.getLibraryRoots(project)));
+
+        knownRoots.retainAll(currentRoots);
+        rootSchemas.keySet().retainAll(currentRoots);
+        Set<VirtualFile> addedRoots = new LinkedHashSet<VirtualFile>(currentRoots);
+        addedRoots.removeAll(knownRoots);
+        for (VirtualFile root : changedRoots) {
+            if (currentRoots.contains(root)) {
+                addedRoots.add(root);
+            }
+        }
+        changedRoots.clear();
+        if (addedRoots.isEmpty()) {
+            return;
+        }
+
+        updateInProgress = true;
+        new Task.Backgroundable(project, "Updating Spring schemas", true) {
+
+            private Map<VirtualFile, LibrarySchemas> scanned = Collections.emptyMap();
+
+            @Override
+            public void run(@NotNull final ProgressIndicator indicator) {
+                scanned = SpringSchemaScanner.scanLibraries(addedRoots, indicator);
+            }
+
+            @Override
+            public void onSuccess() {
+                boolean modified = false;
+                for (VirtualFile root : addedRoots) {
+                    LibrarySchemas schemas = scanned.get(root);
+                    LibrarySchemas previous =
+                        schemas != null ? rootSchemas.put(root, schemas) : rootSchemas.remove(root);
+                    // roots seen for the first time are covered by project roots modification
+                    modified |= knownRoots.contains(root) && previous != schemas;
+                }
+                knownRoots.addAll(addedRoots);
+                if (modified) {
+                    schemasModificationTracker.incModificationCount();
+                }
+            }
+
+            @Override
+            public void onFinished() {
+                updateInProgress = false;
+                if (updatePending) {
+                    updatePending = false;
+                    scheduleUpdate();
+                }
+            }
+        }.queue();
+    }
+
+    @Override
+    public void dispose() {
+    }
+}
@@ -15,23 +15,42 @@
  */
 package org.springirun.search;
 
-import com.intellij.openapi.roots.OrderEnumerator;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.psi.xml.XmlAttribute;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.ArrayUtil;
 
 /**
- * Resolving PsiFiles in classpath directories.
+ * Resolving PsiFiles in classpath directories and libraries.
  *
  * @author Andrii Borovyk
  */
-public class ClasspathResourceSearchStrategy extends ResourceSearchStrategy {
+public class ClasspathResourceSearchStrategy extends IndexedResourceSearchStrategy {
 
     public ClasspathResourceSearchStrategy(final String reference) {
         super(reference);
     }
 
     @Override
-    protected VirtualFile[] prepareSourceRoots(final XmlAttribute xmlAttribute) {
-        return OrderEnumerator.orderEntries(xmlAttribute.getProject()).withoutLibraries().sources().getRoots();
+    protected GlobalSearchScope getSearchScope(final Project project, final VirtualFile contextFile) {
+        return ResourceScopes.getResourceScope(project, contextFile);
+    }
+
+    @Override
+    protected VirtualFile getResourceRoot(final Project project, final VirtualFile file) {
+        ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(project);
+        VirtualFile sourceRoot = fileIndex.getSourceRootForFile(file);
+        return sourceRoot != null ? sourceRoot : fileIndex.getClassRootForFile(file);
+    }
+
+    protected VirtualFile[] getLibraryRoots(final Project project, final VirtualFile contextFile) {
+        return ResourceScopes.getLibraryRoots(project, contextFile);
+    }
+
+    @Override
+    protected VirtualFile[] prepareSourceRoots(final Project project, final VirtualFile contextFile) {
+        return ArrayUtil.mergeArrays(ResourceScopes.getSourceRoots(project, contextFile),
+            getLibraryRoots(project, contextFile));
     }
 }
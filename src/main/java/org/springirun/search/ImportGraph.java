@@ -0,0 +1,269 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.search;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.SimpleModificationTracker;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.PsiTreeChangeAdapter;
+import com.intellij.psi.PsiTreeChangeEvent;
+import com.intellij.psi.ResolveResult;
+import com.intellij.psi.impl.PsiTreeChangeEventImpl;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.xml.XmlAttributeValue;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.psi.xml.XmlTag;
+import org.jetbrains.annotations.NotNull;
+import org.springirun.reference.ImportReference;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.springirun.completion.SpringirunCompletionUtils.*;
+
+/**
+ * Graph of {@code <import>} dependencies between Spring configuration files. Direct imports and transitive import
+ * closures are cached per file and invalidated only when an import tag or file set changes.
+ *
+ * @author Andrii Borovyk
+ */
+public class ImportGraph implements Disposable {
+
+    private static final Key<CachedValue<Set<VirtualFile>>> DIRECT_IMPORTS_KEY =
+        Key.create("springirun.directImports");
+    private static final Key<CachedValue<Set<VirtualFile>>> IMPORT_CLOSURE_KEY =
+        Key.create("springirun.importClosure");
+
+    private final Project project;
+
+    private final SimpleModificationTracker importsModificationTracker = new SimpleModificationTracker();
+
+    private final SimpleModificationTracker fileSetModificationTracker = new SimpleModificationTracker();
+
+    public ImportGraph(final Project project) {
+        this.project = project;
+        PsiManager.getInstance(project).addPsiTreeChangeListener(new ImportChangeListener(), this);
+    }
+
+    public static ImportGraph getInstance(Project project) {
+        return ServiceManager.getService(project, ImportGraph.class);
+    }
+
+    /**
+     * Tracker incremented on every change which could affect resolving of import tags.
+     */
+    public ModificationTracker getModificationTracker() {
+        return importsModificationTracker;
+    }
+
+    /**
+     * Tracker incremented when XML files or directories are created, deleted, moved or renamed, which could change
+     * resolving of import tags in any file. Edits of import tags are tracked by {@link #getModificationTracker()}
+     * only.
+     */
+    public ModificationTracker getFileSetModificationTracker() {
+        return fileSetModificationTracker;
+    }
+
+    /**
+     * Given file together with all files imported by it directly or transitively.
+     */
+    public Set<VirtualFile> getImportClosure(@NotNull XmlFile xmlFile) {
+        return CachedValuesManager.getCachedValue(xmlFile, IMPORT_CLOSURE_KEY,
+            () -> CachedValueProvider.Result.create(computeImportClosure(xmlFile), importsModificationTracker,
+                ProjectRootManager.getInstance(project)));
+    }
+
+    public Set<VirtualFile> getDirectImports(@NotNull XmlFile xmlFile) {
+        return CachedValuesManager.getCachedValue(xmlFile, DIRECT_IMPORTS_KEY,
+            () -> CachedValueProvider.Result.create(computeDirectImports(xmlFile), importsModificationTracker,
+                ProjectRootManager.getInstance(project)));
+    }
+
+    private Set<VirtualFile> computeImportClosure(XmlFile xmlFile) {
+        Set<VirtualFile> closure = new LinkedHashSet<>();
+        if (xmlFile.getVirtualFile() == null) {
+            return closure;
+        }
+        closure.add(xmlFile.getVirtualFile());
+        Deque<XmlFile> queue = new ArrayDeque<>();
+        queue.add(xmlFile);
+        while (!queue.isEmpty()) {
+            for (VirtualFile imported : getDirectImports(queue.poll())) {
+                PsiFile psiFile = PsiManager.getInstance(project).findFile(imported);
+                if (psiFile instanceof XmlFile && closure.add(imported)) {
+                    queue.add((XmlFile) psiFile);
+                }
+            }
+        }
+        return Collections.unmodifiableSet(closure);
+    }
+
+    private static Set<VirtualFile> computeDirectImports(XmlFile xmlFile) {
+        Set<VirtualFile> imports = new LinkedHashSet<>();
+        for (XmlTag importTag : findImportTags(xmlFile)) {
+            XmlAttributeValue resource = importTag.getAttribute(RESOURCE) != null ?
+                importTag.getAttribute(RESOURCE).getValueElement() : null;
+            if (resource == null) {
+                continue;
+            }
+            for (PsiReference reference : resource.getReferences()) {
+                if (reference instanceof ImportReference) {
+                    for (ResolveResult result : ((ImportReference) reference).multiResolve(false)) {
+                        PsiElement element = result.getElement();
+                        if (element instanceof PsiFile && ((PsiFile) element).getVirtualFile() != null) {
+                            imports.add(((PsiFile) element).getVirtualFile());
+                        }
+                    }
+                }
+            }
+        }
+        return Collections.unmodifiableSet(imports);
+    }
+
+    private static List<XmlTag> findImportTags(XmlFile xmlFile) {
+        List<XmlTag> importTags = new ArrayList<>();
+        collectImportTags(xmlFile.getRootTag(), importTags);
+        return importTags;
+    }
+
+    private static void collectImportTags(XmlTag beansTag, List<XmlTag> importTags) {
+        if (beansTag == null || !BEANS.equals(beansTag.getLocalName())
+            || !BEAN_NAMESPACE.equals(beansTag.getNamespace())) {
+            return;
+        }
+        for (XmlTag tag : beansTag.getSubTags()) {
+            if (IMPORT.equals(tag.getLocalName())) {
+                importTags.add(tag);
+            } else if (BEANS.equals(tag.getLocalName())) {
+                collectImportTags(tag, importTags);
+            }
+        }
+    }
+
+    private static boolean isImportTag(PsiElement element) {
+        return element instanceof XmlTag && IMPORT.equals(((XmlTag) element).getLocalName());
+    }
+
+    private static boolean isInsideImport(PsiElement element) {
+        return element != null && isImportTag(PsiTreeUtil.getParentOfType(element, XmlTag.class, false));
+    }
+
+    private static boolean containsImport(PsiElement element) {
+        if (isInsideImport(element)) {
+            return true;
+        }
+        return element instanceof XmlTag && PsiTreeUtil.findChildrenOfType(element, XmlTag.class).stream()
+            .anyMatch(ImportGraph::isImportTag);
+    }
+
+    private static boolean isFileSetElement(PsiElement element) {
+        return element instanceof PsiDirectory || element instanceof XmlFile;
+    }
+
+    private class ImportChangeListener extends PsiTreeChangeAdapter {
+
+        private void onChange(PsiTreeChangeEvent event) {
+            if (event instanceof PsiTreeChangeEventImpl && ((PsiTreeChangeEventImpl) event).isGenericChange()) {
+                return;
+            }
+            PsiFile file = event.getFile();
+            if (file != null && !(file instanceof XmlFile)) {
+                return;
+            }
+            if (isFileSetChange(event)) {
+                fileSetModificationTracker.incModificationCount();
+                importsModificationTracker.incModificationCount();
+            } else if (isImportChange(event)) {
+                importsModificationTracker.incModificationCount();
+            }
+        }
+
+        /**
+         * Creation, deletion or move of XML file or directory; such events are fired outside of any file.
+         */
+        private boolean isFileSetChange(PsiTreeChangeEvent event) {
+            return event.getFile() == null && (isFileSetElement(event.getChild())
+                || isFileSetElement(event.getOldChild()) || isFileSetElement(event.getNewChild()));
+        }
+
+        private boolean isImportChange(PsiTreeChangeEvent event) {
+            return isInsideImport(event.getParent()) || containsImport(event.getChild())
+                || containsImport(event.getOldChild()) || containsImport(event.getNewChild());
+        }
+
+        @Override
+        public void beforeChildRemoval(@NotNull final PsiTreeChangeEvent event) {
+            onChange(event);
+        }
+
+        @Override
+        public void beforeChildReplacement(@NotNull final PsiTreeChangeEvent event) {
+            onChange(event);
+        }
+
+        @Override
+        public void childAdded(@NotNull final PsiTreeChangeEvent event) {
+            onChange(event);
+        }
+
+        @Override
+        public void childReplaced(@NotNull final PsiTreeChangeEvent event) {
+            onChange(event);
+        }
+
+        @Override
+        public void childMoved(@NotNull final PsiTreeChangeEvent event) {
+            onChange(event);
+        }
+
+        @Override
+        public void childrenChanged(@NotNull final PsiTreeChangeEvent event) {
+            onChange(event);
+        }
+
+        @Override
+        public void propertyChanged(@NotNull final PsiTreeChangeEvent event) {
+            if (PsiTreeChangeEvent.PROP_FILE_NAME.equals(event.getPropertyName())
+                || PsiTreeChangeEvent.PROP_DIRECTORY_NAME.equals(event.getPropertyName())) {
+                fileSetModificationTracker.incModificationCount();
+                importsModificationTracker.incModificationCount();
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+    }
+}
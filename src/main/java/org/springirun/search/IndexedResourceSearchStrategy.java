@@ -0,0 +1,76 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.search;
+
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.FilenameIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.PathUtil;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Resolving PsiFiles through file name index. Only files with the same name as referenced resource are checked, so
+ * resolving cost does not depend on number of roots. Falls back to roots probing while indexes are not ready.
+ *
+ * @author Andrii Borovyk
+ */
+public abstract class IndexedResourceSearchStrategy extends ResourceSearchStrategy {
+
+    protected IndexedResourceSearchStrategy(final String reference) {
+        super(reference);
+    }
+
+    protected abstract GlobalSearchScope getSearchScope(Project project, VirtualFile contextFile);
+
+    /**
+     * Root against which resource path of indexed file is computed.
+     */
+    protected VirtualFile getResourceRoot(final Project project, final VirtualFile file) {
+        return ProjectFileIndex.getInstance(project).getSourceRootForFile(file);
+    }
+
+    /**
+     * Path of indexed file relative to its resource root, or null if file is outside of any root.
+     */
+    protected String getResourcePath(final Project project, final VirtualFile file) {
+        VirtualFile root = getResourceRoot(project, file);
+        return root != null ? VfsUtilCore.getRelativePath(file, root) : null;
+    }
+
+    @Override
+    protected Collection<VirtualFile> findResources(final Project project, final VirtualFile contextFile) {
+        if (DumbService.isDumb(project)) {
+            return super.findResources(project, contextFile);
+        }
+        String path = StringUtil.trimStart(getReference(), "/");
+        List<VirtualFile> resources = new ArrayList<VirtualFile>();
+        for (VirtualFile candidate : FilenameIndex.getVirtualFilesByName(project, PathUtil.getFileName(path),
+            getSearchScope(project, contextFile))) {
+            if (path.equals(getResourcePath(project, candidate))) {
+                resources.add(candidate);
+            }
+        }
+        return resources;
+    }
+}
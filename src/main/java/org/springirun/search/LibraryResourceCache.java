@@ -0,0 +1,131 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.search;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.VirtualFileVisitor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of xml resource paths contained in library roots. Archive listing is kept until the archive time stamp
+ * changes, directory listing until files are created, deleted, moved or renamed below that directory, so pattern
+ * matching against a library does not walk its entries on every resolve.
+ *
+ * @author Andrii Borovyk
+ */
+public class LibraryResourceCache {
+
+    private static final String XML_EXTENSION = "xml";
+
+    private final Map<String, LibraryResources> libraryResources = new ConcurrentHashMap<>();
+
+    private final AtomicLong invalidationCount = new AtomicLong();
+
+    public static LibraryResourceCache getInstance() {
+        return ServiceManager.getService(LibraryResourceCache.class);
+    }
+
+    /**
+     * Cache instance if it was already used, so file events do not create it.
+     */
+    static LibraryResourceCache getInstanceIfCreated() {
+        return ApplicationManager.getApplication().getServiceIfCreated(LibraryResourceCache.class);
+    }
+
+    /**
+     * Paths of xml files inside of library root, relative to the root.
+     */
+    public Set<String> getXmlPaths(@NotNull VirtualFile libraryRoot) {
+        VirtualFile archive = VfsUtilCore.getVirtualFileForJar(libraryRoot);
+        long stamp = archive != null ? archive.getTimeStamp() : 0;
+        LibraryResources resources = libraryResources.get(libraryRoot.getUrl());
+        if (resources == null || resources.stamp != stamp) {
+            String path = archive != null ? archive.getPath() : libraryRoot.getPath();
+            long invalidations = invalidationCount.get();
+            resources = new LibraryResources(path, stamp, collectXmlPaths(libraryRoot));
+            libraryResources.put(libraryRoot.getUrl(), resources);
+            if (invalidations != invalidationCount.get()) {
+                // listing may miss files changed while it was collected
+                libraryResources.remove(libraryRoot.getUrl(), resources);
+            }
+        }
+        return resources.paths;
+    }
+
+    /**
+     * Drops listings of roots containing given path, or placed below it, after file at that path was created,
+     * deleted, moved or renamed.
+     */
+    void pathChanged(@NotNull String path) {
+        invalidationCount.incrementAndGet();
+        libraryResources.values().removeIf(resources -> FileUtil.isAncestor(resources.path, path, false)
+            || FileUtil.isAncestor(path, resources.path, false));
+    }
+
+    /**
+     * Drops listings of roots which do not exist anymore, e.g. archives of upgraded libraries.
+     */
+    void removeStaleRoots() {
+        libraryResources.keySet().removeIf(url -> VirtualFileManager.getInstance().findFileByUrl(url) == null);
+    }
+
+    private static Set<String> collectXmlPaths(VirtualFile root) {
+        Set<String> paths = new HashSet<>();
+        VfsUtilCore.visitChildrenRecursively(root, new VirtualFileVisitor<Void>() {
+            @Override
+            public boolean visitFile(@NotNull final VirtualFile file) {
+                if (!file.isDirectory() && XML_EXTENSION.equalsIgnoreCase(file.getExtension())) {
+                    paths.add(VfsUtilCore.getRelativePath(file, root));
+                }
+                return true;
+            }
+        });
+        return Collections.unmodifiableSet(paths);
+    }
+
+    private static class LibraryResources {
+
+        /**
+         * Local path of archive, or of directory root.
+         */
+        private final String path;
+
+        /**
+         * Archive time stamp; directory listings are dropped on file events instead.
+         */
+        private final long stamp;
+
+        private final Set<String> paths;
+
+        LibraryResources(final String path, final long stamp, final Set<String> paths) {
+            this.path = path;
+            this.stamp = stamp;
+            this.paths = paths;
+        }
+    }
+}
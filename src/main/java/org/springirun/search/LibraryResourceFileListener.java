@@ -0,0 +1,55 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.search;
+
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileCopyEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileCreateEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Drops cached listings of library roots in which files were created, deleted, moved or renamed.
+ *
+ * @author Andrii Borovyk
+ */
+public class LibraryResourceFileListener implements BulkFileListener {
+
+    @Override
+    public void after(@NotNull final List<? extends VFileEvent> events) {
+        LibraryResourceCache cache = LibraryResourceCache.getInstanceIfCreated();
+        if (cache == null) {
+            return;
+        }
+        for (VFileEvent event : events) {
+            if (event instanceof VFileMoveEvent) {
+                cache.pathChanged(((VFileMoveEvent) event).getOldPath());
+                cache.pathChanged(((VFileMoveEvent) event).getNewPath());
+            } else if (event instanceof VFilePropertyChangeEvent && ((VFilePropertyChangeEvent) event).isRename()) {
+                cache.pathChanged(((VFilePropertyChangeEvent) event).getOldPath());
+                cache.pathChanged(((VFilePropertyChangeEvent) event).getNewPath());
+            } else if (event instanceof VFileCreateEvent || event instanceof VFileDeleteEvent
+                || event instanceof VFileCopyEvent) {
+                cache.pathChanged(event.getPath());
+            }
+        }
+    }
+}
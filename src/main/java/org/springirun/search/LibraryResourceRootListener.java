@@ -0,0 +1,37 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.search;
+
+import com.intellij.openapi.roots.ModuleRootEvent;
+import com.intellij.openapi.roots.ModuleRootListener;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Drops cached listings of library roots which do not exist anymore whenever project roots change, e.g. after
+ * library upgrade.
+ *
+ * @author Andrii Borovyk
+ */
+public class LibraryResourceRootListener implements ModuleRootListener {
+
+    @Override
+    public void rootsChanged(@NotNull final ModuleRootEvent event) {
+        LibraryResourceCache cache = LibraryResourceCache.getInstanceIfCreated();
+        if (cache != null) {
+            cache.removeStaleRoots();
+        }
+    }
+}
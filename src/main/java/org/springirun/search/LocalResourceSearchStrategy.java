@@ -15,8 +15,8 @@
  */
 package org.springirun.search;
 
+import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.psi.xml.XmlAttribute;
 
 /**
  * Resolving PsiFiles in local directory.
@@ -30,7 +30,8 @@ public class LocalResourceSearchStrategy extends ResourceSearchStrategy {
     }
 
     @Override
-    protected VirtualFile[] prepareSourceRoots(final XmlAttribute xmlAttribute) {
-        return new VirtualFile[] {xmlAttribute.getContainingFile().getVirtualFile().getParent()};
+    protected VirtualFile[] prepareSourceRoots(final Project project, final VirtualFile contextFile) {
+        return contextFile != null && contextFile.getParent() != null ? new VirtualFile[] {contextFile.getParent()}
+            : VirtualFile.EMPTY_ARRAY;
     }
 }
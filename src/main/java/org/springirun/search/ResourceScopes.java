@@ -0,0 +1,99 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.search;
+
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.OrderEnumerator;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.UserDataHolder;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.util.CachedValue;
+import com.intellij.psi.util.CachedValueProvider;
+import com.intellij.psi.util.CachedValuesManager;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.function.Function;
+
+/**
+ * Resource and class search scopes limited to the module containing a file and its dependencies. Roots are
+ * computed once per module (or per project for elements outside of modules) and cached until project roots change.
+ *
+ * @author Andrii Borovyk
+ */
+public class ResourceScopes {
+
+    private static final Key<CachedValue<VirtualFile[]>> SOURCE_ROOTS_KEY = Key.create("springirun.sourceRoots");
+    private static final Key<CachedValue<VirtualFile[]>> LIBRARY_ROOTS_KEY = Key.create("springirun.libraryRoots");
+
+    /**
+     * Scope of module containing given file and of its dependencies, or of the whole project for files outside of
+     * modules.
+     */
+    public static GlobalSearchScope getResourceScope(@NotNull Project project, VirtualFile file) {
+        Module module = findModule(project, file);
+        return module != null ? module.getModuleWithDependenciesAndLibrariesScope(true) :
+            GlobalSearchScope.allScope(project);
+    }
+
+    /**
+     * Source roots of module containing given file and of its dependencies.
+     */
+    public static VirtualFile[] getSourceRoots(@NotNull Project project, VirtualFile file) {
+        Module module = findModule(project, file);
+        return module != null ?
+            getCachedRoots(project, module, SOURCE_ROOTS_KEY,
+                m -> OrderEnumerator.orderEntries(m).recursively().withoutLibraries().sources().getRoots()) :
+            getSourceRoots(project);
+    }
+
+    public static VirtualFile[] getSourceRoots(@NotNull Project project) {
+        return getCachedRoots(project, project, SOURCE_ROOTS_KEY,
+            p -> OrderEnumerator.orderEntries(project).withoutLibraries().sources().getRoots());
+    }
+
+    /**
+     * Library class roots available to module containing given file.
+     */
+    public static VirtualFile[] getLibraryRoots(@NotNull Project project, VirtualFile file) {
+        Module module = findModule(project, file);
+        return module != null ? getLibraryRoots(module) : getLibraryRoots(project);
+    }
+
+    public static VirtualFile[] getLibraryRoots(@NotNull Module module) {
+        return getCachedRoots(module.getProject(), module, LIBRARY_ROOTS_KEY,
+            m -> OrderEnumerator.orderEntries(m).recursively().withoutSdk().librariesOnly().getClassesRoots());
+    }
+
+    public static VirtualFile[] getLibraryRoots(@NotNull Project project) {
+        return getCachedRoots(project, project, LIBRARY_ROOTS_KEY,
+            p -> OrderEnumerator.orderEntries(project).withoutSdk().librariesOnly().getClassesRoots());
+    }
+
+    private static Module findModule(Project project, VirtualFile file) {
+        return file != null ? ModuleUtilCore.findModuleForFile(file, project) : null;
+    }
+
+    private static <T extends UserDataHolder> VirtualFile[] getCachedRoots(Project project, T holder,
+        Key<CachedValue<VirtualFile[]>> key, Function<T, VirtualFile[]> rootsProvider) {
+        return CachedValuesManager.getManager(project).getCachedValue(holder, key,
+            () -> CachedValueProvider.Result.create(rootsProvider.apply(holder), ProjectRootManager.getInstance(project)),
+            false);
+    }
+}
@@ -15,13 +15,16 @@
  */
 package org.springirun.search;
 
+import com.intellij.openapi.project.Project;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.psi.FileViewProvider;
+import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.PsiManager;
-import com.intellij.psi.xml.XmlAttribute;
+import org.jetbrains.annotations.NotNull;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -37,16 +40,39 @@ public abstract class ResourceSearchStrategy {
         this.reference = reference;
     }
 
-    protected abstract VirtualFile[] prepareSourceRoots(XmlAttribute xmlAttribute);
+    protected String getReference() {
+        return reference;
+    }
 
-    public List<PsiFile> resolveAcceptableFiles(XmlAttribute xmlAttribute) {
-        List<PsiFile> psiFiles = new ArrayList<PsiFile>();
-        for (VirtualFile fileOrDir: prepareSourceRoots(xmlAttribute)) {
+    /**
+     * Roots in which referenced resource is looked up; context file is null for references in non-physical files.
+     */
+    protected abstract VirtualFile[] prepareSourceRoots(Project project, VirtualFile contextFile);
+
+    protected Collection<VirtualFile> findResources(Project project, VirtualFile contextFile) {
+        List<VirtualFile> resources = new ArrayList<VirtualFile>();
+        for (VirtualFile fileOrDir: prepareSourceRoots(project, contextFile)) {
             VirtualFile virtualFile = fileOrDir.findFileByRelativePath(reference);
-            if (virtualFile == null) {
-                continue;
+            if (virtualFile != null) {
+                resources.add(virtualFile);
             }
-            FileViewProvider fileViewProvider = PsiManager.getInstance(xmlAttribute.getProject()).findViewProvider(
+        }
+        return resources;
+    }
+
+    /**
+     * Files referenced from given file, found without building PSI of any file.
+     */
+    public Collection<VirtualFile> findFiles(@NotNull Project project, @NotNull VirtualFile contextFile) {
+        return findResources(project, contextFile);
+    }
+
+    public List<PsiFile> resolveAcceptableFiles(PsiElement psiElement) {
+        List<PsiFile> psiFiles = new ArrayList<PsiFile>();
+        PsiFile containingFile = psiElement.getContainingFile();
+        VirtualFile contextFile = containingFile != null ? containingFile.getOriginalFile().getVirtualFile() : null;
+        for (VirtualFile virtualFile : findResources(psiElement.getProject(), contextFile)) {
+            FileViewProvider fileViewProvider = PsiManager.getInstance(psiElement.getProject()).findViewProvider(
                 virtualFile);
             if (fileViewProvider != null) {
                 psiFiles.add(fileViewProvider.getPsi(fileViewProvider.getBaseLanguage()));
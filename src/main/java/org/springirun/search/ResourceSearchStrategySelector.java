@@ -31,7 +31,11 @@ public class ResourceSearchStrategySelector {
 
         Matcher matcher = CLASSPATH_PATTERN.matcher(reference);
         if (matcher.matches()) {
-            return new ClasspathResourceSearchStrategy(matcher.group(2));
+            String path = matcher.group(2);
+            if (WildcardResourceSearchStrategy.isPattern(path)) {
+                return new WildcardResourceSearchStrategy(path);
+            }
+            return new ClasspathResourceSearchStrategy(path);
         }
         return new LocalResourceSearchStrategy(reference);
     }
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.search;
+
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.search.FilenameIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.util.PathUtil;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.containers.SLRUMap;
+import org.springirun.index.SpringFileIndex;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Resolving PsiFiles by Ant-style pattern, e.g. {@code classpath*:META-INF/spring/*-context.xml}. Candidates are
+ * taken from Spring file index for project files and from cached archive listings for libraries, recently used
+ * patterns are kept compiled.
+ *
+ * @author Andrii Borovyk
+ */
+public class WildcardResourceSearchStrategy extends ClasspathResourceSearchStrategy {
+
+    private static final int PATTERNS_CACHE_SIZE = 64;
+
+    /**
+     * Recently used compiled patterns; bounded, since references are compiled while being typed.
+     */
+    private static final SLRUMap<String, Pattern> PATTERNS =
+        new SLRUMap<String, Pattern>(PATTERNS_CACHE_SIZE, PATTERNS_CACHE_SIZE);
+
+    public WildcardResourceSearchStrategy(final String reference) {
+        super(reference);
+    }
+
+    public static boolean isPattern(String path) {
+        return path.indexOf('*') >= 0 || path.indexOf('?') >= 0;
+    }
+
+    @Override
+    protected Collection<VirtualFile> findResources(final Project project, final VirtualFile contextFile) {
+        if (DumbService.isDumb(project)) {
+            return Collections.emptyList();
+        }
+        String path = StringUtil.trimStart(getReference(), "/");
+        Pattern pathPattern = getPattern(path);
+        GlobalSearchScope scope =
+            GlobalSearchScope.projectScope(project).intersectWith(getSearchScope(project, contextFile));
+
+        List<VirtualFile> resources = new ArrayList<VirtualFile>();
+        for (VirtualFile candidate : findCandidates(project, PathUtil.getFileName(path), scope)) {
+            String resourcePath = getResourcePath(project, candidate);
+            if (resourcePath != null && pathPattern.matcher(resourcePath).matches()) {
+                resources.add(candidate);
+            }
+        }
+        for (VirtualFile libraryRoot : getLibraryRoots(project, contextFile)) {
+            for (String resourcePath : LibraryResourceCache.getInstance().getXmlPaths(libraryRoot)) {
+                if (pathPattern.matcher(resourcePath).matches()) {
+                    ContainerUtil.addIfNotNull(resources, libraryRoot.findFileByRelativePath(resourcePath));
+                }
+            }
+        }
+        return resources;
+    }
+
+    /**
+     * Files with given name, or all Spring configuration files if name is a pattern; other XML files are never
+     * matched against wildcard.
+     */
+    private static Collection<VirtualFile> findCandidates(Project project, String fileNamePattern,
+        GlobalSearchScope scope) {
+        if (!isPattern(fileNamePattern)) {
+            return FilenameIndex.getVirtualFilesByName(project, fileNamePattern, scope);
+        }
+        Pattern pattern = getPattern(fileNamePattern);
+        List<VirtualFile> candidates = new ArrayList<VirtualFile>();
+        for (VirtualFile file : SpringFileIndex.getSpringFiles(scope)) {
+            if (pattern.matcher(file.getName()).matches()) {
+                candidates.add(file);
+            }
+        }
+        return candidates;
+    }
+
+    private static Pattern getPattern(String antPattern) {
+        synchronized (PATTERNS) {
+            Pattern pattern = PATTERNS.get(antPattern);
+            if (pattern == null) {
+                pattern = compile(antPattern);
+                PATTERNS.put(antPattern, pattern);
+            }
+            return pattern;
+        }
+    }
+
+    private static Pattern compile(String antPattern) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < antPattern.length(); i++) {
+            char c = antPattern.charAt(i);
+            if (c == '*' && antPattern.startsWith("**/", i)) {
+                regex.append("(?:.*/)?");
+                i += 2;
+            } else if (c == '*' && antPattern.startsWith("**", i)) {
+                regex.append(".*");
+                i++;
+            } else if (c == '*') {
+                regex.append("[^/]*");
+            } else if (c == '?') {
+                regex.append("[^/]");
+            } else if (Character.isLetterOrDigit(c)) {
+                regex.append(c);
+            } else {
+                regex.append('\\').append(c);
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+}
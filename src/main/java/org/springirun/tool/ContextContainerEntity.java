@@ -15,8 +15,7 @@
  */
 package org.springirun.tool;
 
-import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.psi.PsiFile;
+import com.intellij.openapi.vfs.pointers.VirtualFilePointer;
 import com.intellij.util.xmlb.annotations.AbstractCollection;
 import com.intellij.util.xmlb.annotations.Attribute;
 import com.intellij.util.xmlb.annotations.Tag;
@@ -42,7 +41,10 @@ public class ContextContainerEntity {
     private String contextPath;
 
     @Transient
-    private PsiFile contextFile;
+    private VirtualFilePointer contextFilePointer;
+
+    @Transient
+    private long missingContextFileStamp = -1;
 
     @Transient
     private ContextContainerEntity parentContextContainerEntity;
@@ -102,12 +104,26 @@ public class ContextContainerEntity {
         this.contextPath = contextPath;
     }
 
-    public PsiFile getContextFile() {
-        return contextFile;
+    /**
+     * Pointer to context file, created on first access through {@link ContextPersistentStateComponent}.
+     */
+    public VirtualFilePointer getContextFilePointer() {
+        return contextFilePointer;
+    }
+
+    public void setContextFilePointer(final VirtualFilePointer contextFilePointer) {
+        this.contextFilePointer = contextFilePointer;
+    }
+
+    /**
+     * Roots modification stamp at which context file was last looked up and not found.
+     */
+    public long getMissingContextFileStamp() {
+        return missingContextFileStamp;
     }
 
-    public void setContextFile(final PsiFile contextFile) {
-        this.contextFile = contextFile;
+    public void setMissingContextFileStamp(final long missingContextFileStamp) {
+        this.missingContextFileStamp = missingContextFileStamp;
     }
 
     @Override
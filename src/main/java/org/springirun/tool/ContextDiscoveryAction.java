@@ -0,0 +1,42 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.tool;
+
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.project.Project;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Discovers Spring contexts of project in background and adds them to context manager.
+ *
+ * @author Andrii Borovyk
+ */
+public class ContextDiscoveryAction extends AnAction {
+
+    @Override
+    public void actionPerformed(@NotNull final AnActionEvent e) {
+        Project project = e.getProject();
+        if (project != null) {
+            new ContextDiscoveryTask(project).queue();
+        }
+    }
+
+    @Override
+    public void update(@NotNull final AnActionEvent e) {
+        e.getPresentation().setEnabled(e.getProject() != null);
+    }
+}
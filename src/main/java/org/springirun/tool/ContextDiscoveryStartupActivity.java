@@ -0,0 +1,42 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.tool;
+
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.StartupActivity;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Discovers Spring contexts once indexes are ready, if no context is configured for project yet.
+ *
+ * @author Andrii Borovyk
+ */
+public class ContextDiscoveryStartupActivity implements StartupActivity.DumbAware {
+
+    @Override
+    public void runActivity(@NotNull final Project project) {
+        if (!ContextPersistentStateComponent.getInstance(project).getContextContainer()
+            .getContextContainerRootEntities().isEmpty()) {
+            return;
+        }
+        DumbService.getInstance(project).runWhenSmart(() -> {
+            if (!project.isDisposed()) {
+                new ContextDiscoveryTask(project).queue();
+            }
+        });
+    }
+}
@@ -0,0 +1,377 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.tool;
+
+import com.intellij.codeInsight.AnnotationUtil;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.JavaPsiFacade;
+import com.intellij.psi.PsiAnnotation;
+import com.intellij.psi.PsiAnnotationMemberValue;
+import com.intellij.psi.PsiClass;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.SmartPointerManager;
+import com.intellij.psi.SmartPsiElementPointer;
+import com.intellij.psi.search.FilenameIndex;
+import com.intellij.psi.search.GlobalSearchScope;
+import com.intellij.psi.search.searches.AnnotatedElementsSearch;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.psi.xml.XmlTag;
+import org.jetbrains.annotations.NotNull;
+import org.springirun.completion.resolving.BeanResolvingStrategy;
+import org.springirun.completion.resolving.ContextBeanResolvingStrategy;
+import org.springirun.index.SpringFileIndex;
+import org.springirun.index.SpringImportIndex;
+import org.springirun.search.ResourceSearchStrategySelector;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Background discovery of Spring contexts: root and servlet contexts declared by {@code contextConfigLocation} in
+ * web.xml, configuration files referenced by {@code @ImportResource} and configuration files not imported by any
+ * other one. Candidates and their imports are found through indexes, only web.xml files and annotated classes
+ * are parsed. Discovered contexts are named by path of their declaring file or class name, and only files not
+ * belonging to configured contexts yet are added.
+ *
+ * @author Andrii Borovyk
+ */
+public class ContextDiscoveryTask extends Task.Backgroundable {
+
+    private static final String WEB_XML = "web.xml";
+    private static final String CONTEXT_CONFIG_LOCATION = "contextConfigLocation";
+    private static final String CONTEXT_LOADER_LISTENER = "org.springframework.web.context.ContextLoaderListener";
+    private static final String DISPATCHER_SERVLET = "org.springframework.web.servlet.DispatcherServlet";
+    private static final String DEFAULT_ROOT_CONTEXT = "/WEB-INF/applicationContext.xml";
+    private static final String IMPORT_RESOURCE = "org.springframework.context.annotation.ImportResource";
+    private static final String CLASSPATH_PREFIX = "classpath:";
+    private static final String LOCATION_DELIMITERS = ",; \t\n";
+
+    private final List<ContextContainerEntity> discoveredContexts = new ArrayList<ContextContainerEntity>();
+
+    private final Set<VirtualFile> configuredFiles = new HashSet<VirtualFile>();
+
+    public ContextDiscoveryTask(@NotNull final Project project) {
+        super(project, "Discovering Spring contexts", true);
+    }
+
+    @Override
+    public void run(@NotNull final ProgressIndicator indicator) {
+        DumbService dumbService = DumbService.getInstance(myProject);
+        GlobalSearchScope scope = GlobalSearchScope.projectScope(myProject);
+        configuredFiles.addAll(dumbService.runReadActionInSmartMode(this::getConfiguredFiles));
+        Set<VirtualFile> contextFiles = new HashSet<VirtualFile>(configuredFiles);
+
+        indicator.setText("Reading web.xml files");
+        Collection<VirtualFile> webXmlFiles =
+            dumbService.runReadActionInSmartMode(() -> FilenameIndex.getVirtualFilesByName(myProject, WEB_XML, scope));
+        for (VirtualFile webXml : webXmlFiles) {
+            indicator.checkCanceled();
+            dumbService.runReadActionInSmartMode(() -> discoverWebContexts(webXml, contextFiles));
+        }
+
+        indicator.setText("Searching @ImportResource annotations");
+        List<SmartPsiElementPointer<PsiClass>> annotatedClasses =
+            dumbService.runReadActionInSmartMode(() -> findAnnotatedClasses(scope));
+        for (SmartPsiElementPointer<PsiClass> annotatedClass : annotatedClasses) {
+            indicator.checkCanceled();
+            dumbService.runReadActionInSmartMode(() -> {
+                PsiClass psiClass = annotatedClass.getElement();
+                if (psiClass != null) {
+                    discoverAnnotatedContext(psiClass, contextFiles);
+                }
+            });
+        }
+
+        indicator.setText("Searching configuration files not imported by other ones");
+        Collection<VirtualFile> springFiles =
+            dumbService.runReadActionInSmartMode(() -> SpringFileIndex.getSpringFiles(scope));
+        int processed = 0;
+        indicator.setIndeterminate(false);
+        for (VirtualFile springFile : springFiles) {
+            indicator.checkCanceled();
+            indicator.setFraction((double) processed++ / springFiles.size());
+            dumbService.runReadActionInSmartMode(() -> {
+                if (!contextFiles.contains(springFile) && springFile.isValid() && !isImported(springFile, scope)) {
+                    addContext(getRelativePath(springFile),
+                        toConfigurations(Collections.singletonList(springFile), contextFiles));
+                }
+            });
+        }
+    }
+
+    @Override
+    public void onSuccess() {
+        if (discoveredContexts.isEmpty()) {
+            return;
+        }
+        ContextPersistentStateComponent stateComponent = ContextPersistentStateComponent.getInstance(myProject);
+        ContextContainer contextContainer = stateComponent.cloneState();
+        contextContainer.getContextContainerRootEntities().addAll(discoveredContexts);
+        stateComponent.loadState(contextContainer);
+    }
+
+    /**
+     * Member files of contexts configured already, including imported files and files of child contexts. These
+     * files are not discovered again, whatever context they belong to.
+     */
+    private Set<VirtualFile> getConfiguredFiles() {
+        Set<VirtualFile> files = new HashSet<VirtualFile>();
+        BeanResolvingStrategy strategy = ContextBeanResolvingStrategy.getInstance(myProject);
+        for (ContextContainerEntity context : ContextPersistentStateComponent.getInstance(myProject)
+            .getContextContainer().getContextContainerRootEntities()) {
+            files.addAll(strategy.getContextFiles(context));
+        }
+        return files;
+    }
+
+    private void discoverWebContexts(VirtualFile webXml, Set<VirtualFile> contextFiles) {
+        PsiFile psiFile = PsiManager.getInstance(myProject).findFile(webXml);
+        XmlTag webApp = psiFile instanceof XmlFile ? ((XmlFile) psiFile).getRootTag() : null;
+        VirtualFile webRoot = webXml.getParent() != null ? webXml.getParent().getParent() : null;
+        if (webApp == null || webRoot == null) {
+            return;
+        }
+        String rootLocations = findParamValue(webApp, "context-param");
+        if (rootLocations == null && hasListener(webApp)) {
+            rootLocations = DEFAULT_ROOT_CONTEXT;
+        }
+        List<ContextContainerEntity> rootConfigurations = rootLocations == null ?
+            Collections.<ContextContainerEntity>emptyList() :
+            toConfigurations(resolveWebLocations(rootLocations, webXml, webRoot), contextFiles);
+
+        List<ContextContainerEntity> servletContexts = new ArrayList<ContextContainerEntity>();
+        for (XmlTag servlet : findSubTags(webApp, "servlet")) {
+            String servletLocations = findParamValue(servlet, "init-param");
+            if (servletLocations == null && DISPATCHER_SERVLET.equals(getSubTagText(servlet, "servlet-class"))) {
+                servletLocations = "/WEB-INF/" + getSubTagText(servlet, "servlet-name") + "-servlet.xml";
+            }
+            if (servletLocations != null) {
+                servletContexts.addAll(
+                    toConfigurations(resolveWebLocations(servletLocations, webXml, webRoot), contextFiles));
+            }
+        }
+        if (rootConfigurations.isEmpty()) {
+            // servlet contexts without root context are independent
+            for (ContextContainerEntity servletContext : servletContexts) {
+                addContext(servletContext.getContextPath(), Collections.singletonList(servletContext));
+            }
+            return;
+        }
+        ContextContainerEntity parentConfiguration = rootConfigurations.get(0);
+        for (ContextContainerEntity servletContext : servletContexts) {
+            servletContext.setParentContextContainerEntity(parentConfiguration);
+            parentConfiguration.getChildContextContainers().add(servletContext);
+        }
+        addContext(getRelativePath(webXml), rootConfigurations);
+    }
+
+    /**
+     * Classes annotated with {@code @ImportResource}; pointers are returned, so that every class is processed in a
+     * read action of its own.
+     */
+    private List<SmartPsiElementPointer<PsiClass>> findAnnotatedClasses(GlobalSearchScope scope) {
+        List<SmartPsiElementPointer<PsiClass>> annotatedClasses = new ArrayList<SmartPsiElementPointer<PsiClass>>();
+        PsiClass importResource = JavaPsiFacade.getInstance(myProject)
+            .findClass(IMPORT_RESOURCE, GlobalSearchScope.allScope(myProject));
+        if (importResource == null) {
+            return annotatedClasses;
+        }
+        SmartPointerManager pointerManager = SmartPointerManager.getInstance(myProject);
+        AnnotatedElementsSearch.searchPsiClasses(importResource, scope).forEach(psiClass -> {
+            ProgressManager.checkCanceled();
+            annotatedClasses.add(pointerManager.createSmartPsiElementPointer(psiClass));
+            return true;
+        });
+        return annotatedClasses;
+    }
+
+    private void discoverAnnotatedContext(PsiClass psiClass, Set<VirtualFile> contextFiles) {
+        PsiAnnotation annotation = AnnotationUtil.findAnnotation(psiClass, IMPORT_RESOURCE);
+        VirtualFile classFile = psiClass.getContainingFile().getVirtualFile();
+        if (annotation == null || psiClass.getQualifiedName() == null || classFile == null) {
+            return;
+        }
+        List<VirtualFile> files = new ArrayList<VirtualFile>();
+        for (String attribute : new String[] {"value", "locations"}) {
+            for (PsiAnnotationMemberValue value :
+                AnnotationUtil.arrayAttributeValues(annotation.findDeclaredAttributeValue(attribute))) {
+                Object location = JavaPsiFacade.getInstance(myProject).getConstantEvaluationHelper()
+                    .computeConstantExpression(value);
+                if (location instanceof String) {
+                    String path = (String) location;
+                    files.addAll(resolveLocation(path.contains(":") ? path : CLASSPATH_PREFIX + path, classFile));
+                }
+            }
+        }
+        List<ContextContainerEntity> configurations = toConfigurations(files, contextFiles);
+        if (!configurations.isEmpty()) {
+            addContext(psiClass.getQualifiedName(), configurations);
+        }
+    }
+
+    /**
+     * Whether any configuration file importing file's name imports the file itself. Import locations are taken from
+     * import index and resolved without parsing the importers.
+     */
+    private boolean isImported(VirtualFile file, GlobalSearchScope scope) {
+        for (VirtualFile candidate : SpringImportIndex.getImportCandidates(file, scope)) {
+            for (String location : SpringImportIndex.getImportLocations(myProject, candidate, file.getName())) {
+                if (resolveLocation(location, candidate).contains(file)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Given file together with all files imported by it directly or transitively, following import index.
+     */
+    private Set<VirtualFile> getImportClosure(VirtualFile file) {
+        Set<VirtualFile> closure = new LinkedHashSet<VirtualFile>();
+        closure.add(file);
+        Deque<VirtualFile> queue = new ArrayDeque<VirtualFile>();
+        queue.add(file);
+        while (!queue.isEmpty()) {
+            VirtualFile importer = queue.poll();
+            for (String location : SpringImportIndex.getImportLocations(myProject, importer)) {
+                for (VirtualFile imported : resolveLocation(location, importer)) {
+                    if (closure.add(imported)) {
+                        queue.add(imported);
+                    }
+                }
+            }
+        }
+        return closure;
+    }
+
+    private List<VirtualFile> resolveWebLocations(String locations, VirtualFile webXml, VirtualFile webRoot) {
+        List<VirtualFile> files = new ArrayList<VirtualFile>();
+        for (String location : StringUtil.tokenize(locations, LOCATION_DELIMITERS)) {
+            if (location.startsWith("classpath")) {
+                files.addAll(resolveLocation(location, webXml));
+            } else {
+                VirtualFile file = webRoot.findFileByRelativePath(StringUtil.trimStart(location, "/"));
+                if (file != null && !file.isDirectory()) {
+                    files.add(file);
+                }
+            }
+        }
+        return files;
+    }
+
+    private Collection<VirtualFile> resolveLocation(String location, VirtualFile contextFile) {
+        return new ResourceSearchStrategySelector().getSearchStrategy(location.trim()).findFiles(myProject,
+            contextFile);
+    }
+
+    /**
+     * Configuration entities of local files, files already belonging to another discovered context are reused.
+     * Files of configured contexts are skipped.
+     */
+    private List<ContextContainerEntity> toConfigurations(Collection<VirtualFile> files,
+        Set<VirtualFile> contextFiles) {
+        Set<VirtualFile> memberFiles = new LinkedHashSet<VirtualFile>(files);
+        List<ContextContainerEntity> configurations = new ArrayList<ContextContainerEntity>();
+        for (VirtualFile file : memberFiles) {
+            String path = getRelativePath(file);
+            if (path == null || configuredFiles.contains(file)) {
+                continue;
+            }
+            contextFiles.addAll(getImportClosure(file));
+            ContextContainerEntity configuration = new ContextContainerEntity();
+            configuration.setName(file.getName());
+            configuration.setContextPath(path);
+            configuration.setChildContextContainers(new ArrayList<ContextContainerEntity>());
+            configurations.add(configuration);
+        }
+        return configurations;
+    }
+
+    private void addContext(String name, List<ContextContainerEntity> configurations) {
+        if (configurations.isEmpty()) {
+            return;
+        }
+        ContextContainerEntity context = new ContextContainerEntity();
+        context.setName(name);
+        context.setRoot(true);
+        context.setChildContextContainers(new ArrayList<ContextContainerEntity>(configurations));
+        for (ContextContainerEntity configuration : configurations) {
+            configuration.setParentContextContainerEntity(context);
+        }
+        discoveredContexts.add(context);
+    }
+
+    /**
+     * Path relative to project directory with '/' separators, the same way context manager stores it, or null for
+     * files in libraries.
+     */
+    private String getRelativePath(VirtualFile file) {
+        if (!(file.getFileSystem() instanceof LocalFileSystem) || myProject.getBasePath() == null) {
+            return null;
+        }
+        return FileUtil.getRelativePath(myProject.getBasePath(), file.getPath(), '/');
+    }
+
+    private static String findParamValue(XmlTag parent, String paramTagName) {
+        for (XmlTag param : findSubTags(parent, paramTagName)) {
+            if (CONTEXT_CONFIG_LOCATION.equals(getSubTagText(param, "param-name"))) {
+                return getSubTagText(param, "param-value");
+            }
+        }
+        return null;
+    }
+
+    private static boolean hasListener(XmlTag webApp) {
+        for (XmlTag listener : findSubTags(webApp, "listener")) {
+            if (CONTEXT_LOADER_LISTENER.equals(getSubTagText(listener, "listener-class"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<XmlTag> findSubTags(XmlTag parent, String localName) {
+        List<XmlTag> subTags = new ArrayList<XmlTag>();
+        for (XmlTag subTag : parent.getSubTags()) {
+            if (localName.equals(subTag.getLocalName())) {
+                subTags.add(subTag);
+            }
+        }
+        return subTags;
+    }
+
+    private static String getSubTagText(XmlTag parent, String localName) {
+        List<XmlTag> subTags = findSubTags(parent, localName);
+        return subTags.isEmpty() ? null : subTags.get(0).getValue().getTrimmedText();
+    }
+}
@@ -26,15 +26,16 @@ import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.patterns.XmlPatterns;
 import com.intellij.psi.PsiFile;
 import com.intellij.psi.xml.XmlFile;
-import com.intellij.util.ui.tree.TreeUtil;
 import org.springirun.completion.SpringirunCompletionUtils;
 
 import javax.swing.*;
 import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreePath;
 import java.awt.event.*;
-import java.io.File;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Information about class functionality.
@@ -53,6 +54,13 @@ public class ContextManagerEditorDialog extends JDialog {
 
     private Project project;
     private ContextContainer contextContainer;
+    private final Map<ContextContainerEntity, ContextTreeModel> contextTreeModels =
+            new IdentityHashMap<ContextContainerEntity, ContextTreeModel>();
+    private final Runnable statisticsListener = () -> {
+        if (contextTable.getRowCount() > 0) {
+            ((ContextTableModel) contextTable.getModel()).fireTableRowsUpdated(0, contextTable.getRowCount() - 1);
+        }
+    };
 
     public ContextManagerEditorDialog(final Project project) {
         setContentPane(contentPane);
@@ -73,21 +81,25 @@ public class ContextManagerEditorDialog extends JDialog {
 
         this.project = project;
         this.contextContainer = ContextPersistentStateComponent.getInstance(project).cloneState();
-        contextTable.setModel(new ContextTableModel(contextContainer));
+        contextTable.setModel(new ContextTableModel(contextContainer, ContextStatisticsService.getInstance(project)));
+        ContextStatisticsService.getInstance(project).addChangeListener(statisticsListener);
         currentContextTree.setModel(new DefaultTreeModel(null));
 
         buttonRemove.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(final MouseEvent mouseEvent) {
                 ContextContainerEntity contextContainerEntity =
-                        (ContextContainerEntity) contextTable.getValueAt(contextTable.getSelectedRow(), -1);
+                        ((ContextTableModel) contextTable.getModel()).getContextEntity(contextTable.getSelectedRow());
+                if (contextContainerEntity == null) {
+                    return;
+                }
 
                 ((ContextTableModel) contextTable.getModel()).getContextContainer().getContextContainerRootEntities()
                         .remove(contextContainerEntity);
+                contextTreeModels.remove(contextContainerEntity);
 
-                contextTable.updateUI();
+                ((ContextTableModel) contextTable.getModel()).fireTableDataChanged();
                 currentContextTree.setModel(new DefaultTreeModel(null));
-                currentContextTree.updateUI();
             }
         });
 
@@ -96,10 +108,13 @@ public class ContextManagerEditorDialog extends JDialog {
             public void mouseClicked(final MouseEvent mouseEvent) {
                 if (!(((ContextTableModel) contextTable.getModel()).getContextContainer()
                         .getContextContainerRootEntities().isEmpty())) {
-                    ContextContainerEntity contextContainerEntity =
-                            (ContextContainerEntity) contextTable.getModel().getValueAt(contextTable.getSelectedRow(), 1);
-                    currentContextTree.setModel(new DefaultTreeModel(new ContextTreeNode(contextContainerEntity)));
-                    currentContextTree.updateUI();
+                    ContextContainerEntity contextContainerEntity = ((ContextTableModel) contextTable.getModel())
+                            .getContextEntity(contextTable.getSelectedRow());
+                    if (contextContainerEntity == null) {
+                        return;
+                    }
+                    currentContextTree.setModel(
+                            contextTreeModels.computeIfAbsent(contextContainerEntity, ContextTreeModel::new));
                 }
             }
         });
@@ -123,15 +138,16 @@ public class ContextManagerEditorDialog extends JDialog {
 
         removeFromContext.addActionListener(e -> {
             ContextTreeNode contextTreeNode = (ContextTreeNode) currentContextTree.getLastSelectedPathComponent();
-            if (contextTreeNode.getParent() != null) {
-                ((ContextTreeNode) contextTreeNode.getParent()).remove(contextTreeNode);
-                currentContextTree.updateUI();
-                TreeUtil.expandAll(currentContextTree);
+            if (contextTreeNode != null) {
+                ((ContextTreeModel) currentContextTree.getModel()).removeContextNode(contextTreeNode);
             }
         });
 
         addToContext.addActionListener(actionEvent -> {
             ContextTreeNode contextTreeNode = (ContextTreeNode) currentContextTree.getLastSelectedPathComponent();
+            if (contextTreeNode == null) {
+                return;
+            }
             final FileChooserDescriptor descriptor = FileChooserDescriptorFactory.createSingleFileDescriptor(
                     XmlFileType.INSTANCE);
             final VirtualFile file = FileChooser.chooseFile(descriptor, project, null);
@@ -147,10 +163,9 @@ public class ContextManagerEditorDialog extends JDialog {
                 }
                 ContextContainerEntity contextContainerEntity = createContextContainerEntity(
                         contextTreeNode.getContextContainerEntity(), file, project);
-                contextContainerEntity.setContextFile(psiFile);
-                contextTreeNode.insert(new ContextTreeNode(contextContainerEntity), -1);
-                currentContextTree.updateUI();
-                TreeUtil.expandAll(currentContextTree);
+                TreePath path = ((ContextTreeModel) currentContextTree.getModel())
+                        .addContextEntity(contextTreeNode, contextContainerEntity);
+                currentContextTree.makeVisible(path);
             }
         });
         buttonAdd.addActionListener(e -> {
@@ -160,7 +175,7 @@ public class ContextManagerEditorDialog extends JDialog {
                 contextContainerEntity.setName(context);
                 contextContainerEntity.setRoot(true);
                 contextContainer.getContextContainerRootEntities().add(contextContainerEntity);
-                contextTable.updateUI();
+                ((ContextTableModel) contextTable.getModel()).fireTableDataChanged();
             }
         });
         // call onCancel() on ESCAPE
@@ -171,7 +186,7 @@ public class ContextManagerEditorDialog extends JDialog {
                                                                 final VirtualFile file, final Project project) {
         ContextContainerEntity contextContainerEntity = new ContextContainerEntity();
 
-        String relPath = FileUtil.getRelativePath(project.getBasePath(), file.getPresentableUrl(), File.separatorChar);
+        String relPath = FileUtil.getRelativePath(project.getBasePath(), file.getPath(), '/');
         contextContainerEntity.setName(file.getName());
         contextContainerEntity.setContextPath(relPath);
         contextContainerEntity.setParentContextContainerEntity(parentContextContainer);
@@ -194,4 +209,10 @@ public class ContextManagerEditorDialog extends JDialog {
         dispose();
     }
 
+    @Override
+    public void dispose() {
+        ContextStatisticsService.getInstance(project).removeChangeListener(statisticsListener);
+        super.dispose();
+    }
+
 }
@@ -15,14 +15,28 @@
  */
 package org.springirun.tool;
 
+import com.intellij.openapi.Disposable;
 import com.intellij.openapi.components.PersistentStateComponent;
 import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.components.State;
 import com.intellij.openapi.components.Storage;
 import com.intellij.openapi.project.Project;
+import com.intellij.openapi.project.ProjectUtil;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.ModificationTracker;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.SimpleModificationTracker;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.pointers.VirtualFilePointer;
+import com.intellij.openapi.vfs.pointers.VirtualFilePointerManager;
+import com.intellij.psi.PsiFile;
 import org.jdom.DataConversionException;
 import org.jdom.Element;
 import org.springirun.completion.SpringirunCompletionUtils;
+import org.springirun.search.ResourceScopes;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -36,20 +50,39 @@ import java.util.List;
         name = "SpringirunConfiguration",
         storages = @Storage("springirun.xml")
 )
-public class ContextPersistentStateComponent implements PersistentStateComponent<Element> {
+public class ContextPersistentStateComponent implements PersistentStateComponent<Element>, Disposable {
 
     private ContextContainer contextContainer = new ContextContainer();
 
+    private final SimpleModificationTracker contextsModificationTracker = new SimpleModificationTracker();
+
+    /**
+     * Parent of context file pointers of loaded entities, disposed together with entities once state is replaced.
+     */
+    private Disposable pointersDisposable;
+
     protected Project project;
 
     public ContextPersistentStateComponent(Project project) {
         this.project = project;
+        this.pointersDisposable = createPointersDisposable();
     }
 
     public static ContextPersistentStateComponent getInstance(Project project) {
         return ServiceManager.getService(project, ContextPersistentStateComponent.class);
     }
 
+    /**
+     * Tracker incremented whenever set of contexts or their member files is replaced.
+     */
+    public ModificationTracker getModificationTracker() {
+        return contextsModificationTracker;
+    }
+
+    public ContextContainer getContextContainer() {
+        return contextContainer;
+    }
+
     @Override
     public Element getState() {
         Element contentContainerElement = new Element("ContextContainer");
@@ -62,7 +95,11 @@ public class ContextPersistentStateComponent implements PersistentStateComponent
     }
 
     public void loadState(final ContextContainer contextContainer) {
-        this.contextContainer = contextContainer;
+        synchronized (this) {
+            this.contextContainer = contextContainer;
+            releaseContextFilePointers();
+        }
+        contextsModificationTracker.incModificationCount();
     }
 
     public ContextContainer cloneState() {
@@ -81,16 +118,30 @@ public class ContextPersistentStateComponent implements PersistentStateComponent
 
     @Override
     public void loadState(final Element state) {
-        contextContainer.getContextContainerRootEntities().clear();
-        try {
-            for (Object element : state.getChildren("ContextContainerEntity")) {
-                contextContainer.getContextContainerRootEntities()
-                        .add(createContextContainerEntity((Element) element, null));
+        synchronized (this) {
+            contextContainer.getContextContainerRootEntities().clear();
+            releaseContextFilePointers();
+            try {
+                for (Object element : state.getChildren("ContextContainerEntity")) {
+                    contextContainer.getContextContainerRootEntities()
+                            .add(createContextContainerEntity((Element) element, null));
+                }
+            } catch (DataConversionException e) {
+                e.printStackTrace();
             }
-        } catch (DataConversionException e) {
-            e.printStackTrace();
         }
+        contextsModificationTracker.incModificationCount();
+    }
+
+    private Disposable createPointersDisposable() {
+        Disposable disposable = Disposer.newDisposable();
+        Disposer.register(this, disposable);
+        return disposable;
+    }
 
+    private void releaseContextFilePointers() {
+        Disposer.dispose(pointersDisposable);
+        pointersDisposable = createPointersDisposable();
     }
 
     private ContextContainerEntity createContextContainerEntity(Element element, ContextContainerEntity parentEntity)
@@ -100,8 +151,6 @@ public class ContextPersistentStateComponent implements PersistentStateComponent
         contextContainerEntity.setRoot(element.getAttribute("root").getBooleanValue());
         if (!contextContainerEntity.isRoot()) {
             contextContainerEntity.setContextPath(element.getAttribute("contextPath").getValue());
-            contextContainerEntity.setContextFile(SpringirunCompletionUtils.resolvePsiFile(project,
-                    contextContainerEntity.getContextPath()));
         }
         contextContainerEntity.setParentContextContainerEntity(parentEntity);
         List<ContextContainerEntity> contextContainerEntityList = new ArrayList<ContextContainerEntity>();
@@ -113,6 +162,82 @@ public class ContextPersistentStateComponent implements PersistentStateComponent
         return contextContainerEntity;
     }
 
+    /**
+     * Context file of entity. File is looked up by context path on first access only and tracked through
+     * {@link VirtualFilePointer} afterwards, so neither loading of state nor entities keep files or PSI alive.
+     * Pointers are kept for loaded entities only and released when state is replaced; missing files are not looked
+     * up again until project roots or VFS structure change.
+     */
+    public synchronized VirtualFile getContextVirtualFile(ContextContainerEntity contextContainerEntity) {
+        if (contextContainerEntity.isRoot() || contextContainerEntity.getContextPath() == null) {
+            return null;
+        }
+        VirtualFilePointer contextFilePointer = contextContainerEntity.getContextFilePointer();
+        if (contextFilePointer == null) {
+            long rootsStamp = getRootsStamp();
+            if (contextContainerEntity.getMissingContextFileStamp() == rootsStamp) {
+                return null;
+            }
+            VirtualFile contextFile = findContextFile(contextContainerEntity.getContextPath());
+            if (contextFile == null) {
+                contextContainerEntity.setMissingContextFileStamp(rootsStamp);
+                return null;
+            }
+            if (!isLoaded(contextContainerEntity)) {
+                return contextFile;
+            }
+            contextFilePointer = VirtualFilePointerManager.getInstance().create(contextFile, pointersDisposable, null);
+            contextContainerEntity.setContextFilePointer(contextFilePointer);
+        }
+        VirtualFile contextFile = contextFilePointer.getFile();
+        return contextFile != null && contextFile.isValid() ? contextFile : null;
+    }
+
+    private long getRootsStamp() {
+        return ProjectRootManager.getInstance(project).getModificationCount()
+            + VirtualFileManager.getInstance().getStructureModificationCount();
+    }
+
+    /**
+     * Whether entity belongs to current state, rather than to a copy being edited.
+     */
+    private boolean isLoaded(ContextContainerEntity contextContainerEntity) {
+        ContextContainerEntity rootEntity = contextContainerEntity;
+        while (rootEntity.getParentContextContainerEntity() != null) {
+            rootEntity = rootEntity.getParentContextContainerEntity();
+        }
+        for (ContextContainerEntity loadedRootEntity : contextContainer.getContextContainerRootEntities()) {
+            if (loadedRootEntity == rootEntity) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public PsiFile getContextFile(ContextContainerEntity contextContainerEntity) {
+        VirtualFile contextFile = getContextVirtualFile(contextContainerEntity);
+        return contextFile != null ? SpringirunCompletionUtils.resolvePsiFile(project, contextFile) : null;
+    }
+
+    /**
+     * Looks up context file by path relative to project directory or to a source root, without tracking it.
+     */
+    public VirtualFile findContextFile(String contextPath) {
+        String path = FileUtil.toSystemIndependentName(contextPath);
+        VirtualFile projectDir = ProjectUtil.guessProjectDir(project);
+        VirtualFile contextFile = projectDir != null ? VfsUtilCore.findRelativeFile(path, projectDir) : null;
+        if (contextFile != null && !contextFile.isDirectory()) {
+            return contextFile;
+        }
+        for (VirtualFile sourceRoot : ResourceScopes.getSourceRoots(project)) {
+            contextFile = sourceRoot.findFileByRelativePath(path);
+            if (contextFile != null && !contextFile.isDirectory()) {
+                return contextFile;
+            }
+        }
+        return null;
+    }
+
     private Element createContextContainerEntityElement(ContextContainerEntity contextContainer) {
         Element element = new Element("ContextContainerEntity");
         element.setAttribute("name", contextContainer.getName());
@@ -128,4 +253,8 @@ public class ContextPersistentStateComponent implements PersistentStateComponent
         }
         return element;
     }
+
+    @Override
+    public void dispose() {
+    }
 }
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.tool;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable copy of context entity structure taken on EDT, so that statistics are computed in background without
+ * reading entities edited in context manager meanwhile. Layers follow context resolving: root context consists of
+ * configuration files placed directly under it, any deeper entity is a child context of its parent entity.
+ *
+ * @author Andrii Borovyk
+ */
+class ContextSnapshot {
+
+    private final String configuration;
+
+    private final List<String> contextPaths;
+
+    private final List<ContextSnapshot> childContexts;
+
+    private ContextSnapshot(final String configuration, final List<String> contextPaths,
+        final List<ContextSnapshot> childContexts) {
+        this.configuration = configuration;
+        this.contextPaths = contextPaths;
+        this.childContexts = childContexts;
+    }
+
+    /**
+     * Takes snapshot of context; must be called on EDT, where entities are edited.
+     */
+    static ContextSnapshot of(ContextContainerEntity context) {
+        StringBuilder configuration = new StringBuilder();
+        appendConfiguration(context, configuration);
+        return of(context, configuration.toString());
+    }
+
+    private static ContextSnapshot of(ContextContainerEntity context, String configuration) {
+        List<String> contextPaths = new ArrayList<String>();
+        List<ContextSnapshot> childContexts = new ArrayList<ContextSnapshot>();
+        if (context.isRoot()) {
+            for (ContextContainerEntity child : getChildren(context)) {
+                addContextPath(child, contextPaths);
+                for (ContextContainerEntity childContext : getChildren(child)) {
+                    childContexts.add(of(childContext, null));
+                }
+            }
+        } else {
+            addContextPath(context, contextPaths);
+            for (ContextContainerEntity childContext : getChildren(context)) {
+                childContexts.add(of(childContext, null));
+            }
+        }
+        return new ContextSnapshot(configuration, Collections.unmodifiableList(contextPaths),
+            Collections.unmodifiableList(childContexts));
+    }
+
+    private static void addContextPath(ContextContainerEntity context, List<String> contextPaths) {
+        if (!context.isRoot() && context.getContextPath() != null) {
+            contextPaths.add(context.getContextPath());
+        }
+    }
+
+    private static List<ContextContainerEntity> getChildren(ContextContainerEntity context) {
+        return context.getChildContextContainers() != null ?
+            context.getChildContextContainers() : Collections.<ContextContainerEntity>emptyList();
+    }
+
+    private static void appendConfiguration(ContextContainerEntity context, StringBuilder configuration) {
+        configuration.append(context.isRoot()).append(':').append(context.getContextPath()).append('(');
+        for (ContextContainerEntity child : getChildren(context)) {
+            appendConfiguration(child, configuration);
+        }
+        configuration.append(')');
+    }
+
+    /**
+     * Configuration files of context and of its nested entities; statistics are computed again once it changes.
+     * Known for snapshots of whole contexts only.
+     */
+    String getConfiguration() {
+        return configuration;
+    }
+
+    /**
+     * Paths of configuration files forming this context, without child contexts.
+     */
+    List<String> getContextPaths() {
+        return contextPaths;
+    }
+
+    List<ContextSnapshot> getChildContexts() {
+        return childContexts;
+    }
+}
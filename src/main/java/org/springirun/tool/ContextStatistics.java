@@ -0,0 +1,90 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.tool;
+
+import com.intellij.openapi.vfs.VirtualFile;
+
+import java.util.Set;
+
+/**
+ * Statistics of one context: member files, declared beans, bean references not resolvable within context and time
+ * of computation. Statistics also remember the configuration and file set they were computed for, and are marked
+ * outdated once any of their files changes.
+ *
+ * @author Andrii Borovyk
+ */
+public class ContextStatistics {
+
+    private final Set<VirtualFile> files;
+
+    private final int beanCount;
+
+    private final int unresolvedReferenceCount;
+
+    private final long validatedAt;
+
+    private final String configuration;
+
+    private final long fileSetStamp;
+
+    private volatile boolean outdated;
+
+    public ContextStatistics(final Set<VirtualFile> files, final int beanCount, final int unresolvedReferenceCount,
+        final long validatedAt, final String configuration, final long fileSetStamp) {
+        this.files = files;
+        this.beanCount = beanCount;
+        this.unresolvedReferenceCount = unresolvedReferenceCount;
+        this.validatedAt = validatedAt;
+        this.configuration = configuration;
+        this.fileSetStamp = fileSetStamp;
+    }
+
+    public Set<VirtualFile> getFiles() {
+        return files;
+    }
+
+    public int getFileCount() {
+        return files.size();
+    }
+
+    public int getBeanCount() {
+        return beanCount;
+    }
+
+    public int getUnresolvedReferenceCount() {
+        return unresolvedReferenceCount;
+    }
+
+    public long getValidatedAt() {
+        return validatedAt;
+    }
+
+    public String getConfiguration() {
+        return configuration;
+    }
+
+    public long getFileSetStamp() {
+        return fileSetStamp;
+    }
+
+    public boolean isOutdated() {
+        return outdated;
+    }
+
+    public void markOutdated() {
+        outdated = true;
+    }
+}
@@ -0,0 +1,336 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.tool;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.PsiDirectory;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiManager;
+import com.intellij.psi.PsiTreeChangeAdapter;
+import com.intellij.psi.PsiTreeChangeEvent;
+import com.intellij.psi.impl.PsiTreeChangeEventImpl;
+import com.intellij.psi.xml.XmlFile;
+import com.intellij.util.Alarm;
+import com.intellij.util.containers.ContainerUtil;
+import com.intellij.util.indexing.FileBasedIndex;
+import com.intellij.util.ui.update.MergingUpdateQueue;
+import com.intellij.util.ui.update.Update;
+import org.jetbrains.annotations.NotNull;
+import org.springirun.completion.resolving.ContextBeanResolvingStrategy;
+import org.springirun.index.BeanIndexEntry;
+import org.springirun.index.BeanNameIndex;
+import org.springirun.index.BeanReferenceIndex;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Cached statistics of contexts, keyed by context entity being shown, so that unsaved contexts edited in context
+ * manager get statistics as well. Statistics are computed from indexes in background; once computed, only contexts
+ * whose member files, configuration or file set changed are computed again. Background computation reads
+ * snapshots of contexts taken on EDT only, never the entities themselves.
+ *
+ * @author Andrii Borovyk
+ */
+public class ContextStatisticsService implements Disposable {
+
+    private static final int UPDATE_DELAY = 500;
+
+    private final Project project;
+
+    private final MergingUpdateQueue updateQueue;
+
+    private final Map<ContextContainerEntity, ContextStatistics> statistics = ContainerUtil.createConcurrentWeakMap();
+
+    private final Map<ContextContainerEntity, ContextSnapshot> pendingContexts =
+        new LinkedHashMap<ContextContainerEntity, ContextSnapshot>();
+
+    private final Map<ContextContainerEntity, String> computingContexts =
+        new HashMap<ContextContainerEntity, String>();
+
+    private final List<Runnable> listeners = ContainerUtil.createLockFreeCopyOnWriteList();
+
+    private volatile long fileSetModificationCount;
+
+    private boolean updateInProgress;
+
+    private boolean updatePending;
+
+    public ContextStatisticsService(final Project project) {
+        this.project = project;
+        this.updateQueue = new MergingUpdateQueue("Springirun context statistics", UPDATE_DELAY, true, null, this,
+            null, Alarm.ThreadToUse.SWING_THREAD);
+        PsiManager.getInstance(project).addPsiTreeChangeListener(new StatisticsChangeListener(), this);
+    }
+
+    public static ContextStatisticsService getInstance(Project project) {
+        return ServiceManager.getService(project, ContextStatisticsService.class);
+    }
+
+    /**
+     * Last computed statistics of context, or null if not computed yet. Computation of missing or outdated
+     * statistics is scheduled. Must be called on EDT.
+     */
+    public ContextStatistics getStatistics(ContextContainerEntity context) {
+        ContextStatistics contextStatistics = statistics.get(context);
+        ContextSnapshot snapshot = ContextSnapshot.of(context);
+        String configuration = snapshot.getConfiguration();
+        if (isOutdated(contextStatistics, configuration) && !configuration.equals(computingContexts.get(context))) {
+            pendingContexts.put(context, snapshot);
+            scheduleUpdate();
+        }
+        return contextStatistics;
+    }
+
+    /**
+     * Adds listener notified on EDT whenever statistics of some contexts are updated or become outdated.
+     */
+    public void addChangeListener(Runnable listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(Runnable listener) {
+        listeners.remove(listener);
+    }
+
+    private void scheduleUpdate() {
+        updateQueue.queue(Update.create(this, this::update));
+    }
+
+    private void scheduleRefresh() {
+        if (!listeners.isEmpty()) {
+            updateQueue.queue(Update.create(listeners, this::fireChanged));
+        }
+    }
+
+    private boolean isOutdated(ContextStatistics contextStatistics, String configuration) {
+        return contextStatistics == null || contextStatistics.isOutdated()
+            || contextStatistics.getFileSetStamp() != getFileSetStamp()
+            || !contextStatistics.getConfiguration().equals(configuration);
+    }
+
+    private long getFileSetStamp() {
+        return fileSetModificationCount + ProjectRootManager.getInstance(project).getModificationCount();
+    }
+
+    private ContextBeanResolvingStrategy getResolvingStrategy() {
+        return ServiceManager.getService(project, ContextBeanResolvingStrategy.class);
+    }
+
+    private void update() {
+        if (project.isDisposed()) {
+            return;
+        }
+        if (updateInProgress) {
+            updatePending = true;
+            return;
+        }
+        if (pendingContexts.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<ContextContainerEntity, ContextSnapshot>> contexts =
+            new ArrayList<Map.Entry<ContextContainerEntity, ContextSnapshot>>(pendingContexts.entrySet());
+        for (Map.Entry<ContextContainerEntity, ContextSnapshot> context : contexts) {
+            computingContexts.put(context.getKey(), context.getValue().getConfiguration());
+        }
+        pendingContexts.clear();
+
+        updateInProgress = true;
+        new Task.Backgroundable(project, "Validating Spring contexts", true) {
+
+            @Override
+            public void run(@NotNull final ProgressIndicator indicator) {
+                indicator.setIndeterminate(false);
+                for (int i = 0; i < contexts.size(); i++) {
+                    indicator.checkCanceled();
+                    indicator.setFraction((double) i / contexts.size());
+                    ContextContainerEntity context = contexts.get(i).getKey();
+                    ContextSnapshot snapshot = contexts.get(i).getValue();
+                    // stored within read action, so that any later change of member files marks it outdated
+                    DumbService.getInstance(project).runReadActionInSmartMode(() -> {
+                        statistics.put(context, computeStatistics(snapshot));
+                    });
+                    if (i % 10 == 9) {
+                        ApplicationManager.getApplication().invokeLater(() -> fireChanged(), project.getDisposed());
+                    }
+                }
+            }
+
+            @Override
+            public void onFinished() {
+                updateInProgress = false;
+                computingContexts.clear();
+                fireChanged();
+                if (updatePending) {
+                    updatePending = false;
+                    scheduleUpdate();
+                }
+            }
+        }.queue();
+    }
+
+    private ContextStatistics computeStatistics(ContextSnapshot snapshot) {
+        long fileSetStamp = getFileSetStamp();
+        Set<VirtualFile> files = new LinkedHashSet<VirtualFile>();
+        int unresolvedReferenceCount =
+            countUnresolvedReferences(getResolvingStrategy(), snapshot, Collections.emptySet(), files);
+        int beanCount = 0;
+        for (VirtualFile file : files) {
+            Set<Integer> beanOffsets = new HashSet<Integer>();
+            for (BeanIndexEntry entry : FileBasedIndex.getInstance().getFileData(BeanNameIndex.NAME, file, project)
+                .values()) {
+                if (!entry.isAlias()) {
+                    beanOffsets.add(entry.getOffset());
+                }
+            }
+            beanCount += beanOffsets.size();
+        }
+        return new ContextStatistics(Collections.unmodifiableSet(files), beanCount, unresolvedReferenceCount,
+            System.currentTimeMillis(), snapshot.getConfiguration(), fileSetStamp);
+    }
+
+    /**
+     * Counts references of context member files not resolvable within context or its parents, then continues with
+     * child contexts, which see beans of this context.
+     */
+    private int countUnresolvedReferences(ContextBeanResolvingStrategy strategy, ContextSnapshot context,
+        Set<String> parentNames, Set<VirtualFile> files) {
+        ProgressManager.checkCanceled();
+        Set<VirtualFile> memberFiles = new LinkedHashSet<VirtualFile>();
+        ContextPersistentStateComponent stateComponent = ContextPersistentStateComponent.getInstance(project);
+        for (String contextPath : context.getContextPaths()) {
+            VirtualFile contextFile = stateComponent.findContextFile(contextPath);
+            if (contextFile == null) {
+                continue;
+            }
+            for (VirtualFile file : strategy.getImportClosure(contextFile)) {
+                if (file.isValid()) {
+                    memberFiles.add(file);
+                }
+            }
+        }
+        files.addAll(memberFiles);
+        Set<String> names = new HashSet<String>(parentNames);
+        names.addAll(BeanNameIndex.getBeanNames(project, memberFiles).keySet());
+        int unresolvedReferenceCount = 0;
+        for (VirtualFile file : memberFiles) {
+            for (Map.Entry<String, Integer> reference : BeanReferenceIndex.getReferences(project, file).entrySet()) {
+                if (!names.contains(reference.getKey())) {
+                    unresolvedReferenceCount += reference.getValue();
+                }
+            }
+        }
+        for (ContextSnapshot childContext : context.getChildContexts()) {
+            unresolvedReferenceCount += countUnresolvedReferences(strategy, childContext, names, files);
+        }
+        return unresolvedReferenceCount;
+    }
+
+    private void fireChanged() {
+        for (Runnable listener : listeners) {
+            listener.run();
+        }
+    }
+
+    private class StatisticsChangeListener extends PsiTreeChangeAdapter {
+
+        private void onChange(PsiTreeChangeEvent event) {
+            if (event instanceof PsiTreeChangeEventImpl && ((PsiTreeChangeEventImpl) event).isGenericChange()) {
+                return;
+            }
+            PsiFile file = event.getFile();
+            if (file == null && (isFileSetElement(event.getChild()) || isFileSetElement(event.getOldChild())
+                || isFileSetElement(event.getNewChild()))) {
+                fileSetModificationCount++;
+                scheduleRefresh();
+            } else if (file instanceof XmlFile && file.getVirtualFile() != null) {
+                fileChanged(file.getVirtualFile());
+            }
+        }
+
+        private void fileChanged(VirtualFile file) {
+            boolean changed = false;
+            for (ContextStatistics contextStatistics : statistics.values()) {
+                if (!contextStatistics.isOutdated() && contextStatistics.getFiles().contains(file)) {
+                    contextStatistics.markOutdated();
+                    changed = true;
+                }
+            }
+            if (changed) {
+                scheduleRefresh();
+            }
+        }
+
+        private boolean isFileSetElement(PsiElement element) {
+            return element instanceof PsiDirectory || element instanceof XmlFile;
+        }
+
+        @Override
+        public void childAdded(@NotNull final PsiTreeChangeEvent event) {
+            onChange(event);
+        }
+
+        @Override
+        public void childRemoved(@NotNull final PsiTreeChangeEvent event) {
+            onChange(event);
+        }
+
+        @Override
+        public void childReplaced(@NotNull final PsiTreeChangeEvent event) {
+            onChange(event);
+        }
+
+        @Override
+        public void childMoved(@NotNull final PsiTreeChangeEvent event) {
+            onChange(event);
+        }
+
+        @Override
+        public void childrenChanged(@NotNull final PsiTreeChangeEvent event) {
+            onChange(event);
+        }
+
+        @Override
+        public void propertyChanged(@NotNull final PsiTreeChangeEvent event) {
+            if (PsiTreeChangeEvent.PROP_FILE_NAME.equals(event.getPropertyName())
+                || PsiTreeChangeEvent.PROP_DIRECTORY_NAME.equals(event.getPropertyName())) {
+                fileSetModificationCount++;
+                scheduleRefresh();
+            }
+        }
+    }
+
+    @Override
+    public void dispose() {
+    }
+}
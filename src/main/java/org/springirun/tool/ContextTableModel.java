@@ -15,19 +15,29 @@
  */
 package org.springirun.tool;
 
+import com.intellij.util.text.DateFormatUtil;
+
 import javax.swing.table.AbstractTableModel;
 
 /**
- * Information about class functionality.
+ * Table of contexts with their statistics. Statistics are taken from {@link ContextStatisticsService} cache and
+ * shown as pending until computed.
  *
  * @author Andrii Borovyk
  */
 class ContextTableModel extends AbstractTableModel {
 
+    private static final String[] COLUMNS = {"Context", "Files", "Beans", "Unresolved references", "Last validated"};
+
+    private static final String PENDING = "...";
+
     private ContextContainer contextContainer;
 
-    ContextTableModel(final ContextContainer contextContainer) {
+    private final ContextStatisticsService statisticsService;
+
+    ContextTableModel(final ContextContainer contextContainer, final ContextStatisticsService statisticsService) {
         this.contextContainer = contextContainer;
+        this.statisticsService = statisticsService;
     }
 
     public void setContextContainer(final ContextContainer contextContainer) {
@@ -38,6 +48,13 @@ class ContextTableModel extends AbstractTableModel {
         return contextContainer;
     }
 
+    public ContextContainerEntity getContextEntity(final int rowIndex) {
+        if (rowIndex < 0 || rowIndex >= getRowCount()) {
+            return null;
+        }
+        return contextContainer.getContextContainerRootEntities().get(rowIndex);
+    }
+
     @Override
     public int getRowCount() {
         return contextContainer.getContextContainerRootEntities().size();
@@ -45,15 +62,33 @@ class ContextTableModel extends AbstractTableModel {
 
     @Override
     public int getColumnCount() {
-        return 1;
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(final int column) {
+        return COLUMNS[column];
     }
 
     @Override
     public Object getValueAt(final int rowIndex, final int columnIndex) {
-        try {
-            return contextContainer.getContextContainerRootEntities().get(rowIndex);
-        } catch (IndexOutOfBoundsException e) {
-            return null;
+        ContextContainerEntity contextContainerEntity = getContextEntity(rowIndex);
+        if (contextContainerEntity == null || columnIndex == 0) {
+            return contextContainerEntity;
+        }
+        ContextStatistics statistics = statisticsService.getStatistics(contextContainerEntity);
+        if (statistics == null) {
+            return PENDING;
+        }
+        switch (columnIndex) {
+            case 1:
+                return statistics.getFileCount();
+            case 2:
+                return statistics.getBeanCount();
+            case 3:
+                return statistics.getUnresolvedReferenceCount();
+            default:
+                return DateFormatUtil.formatPrettyDateTime(statistics.getValidatedAt());
         }
     }
 }
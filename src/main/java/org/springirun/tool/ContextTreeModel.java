@@ -0,0 +1,49 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.tool;
+
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreePath;
+
+/**
+ * Tree model of one context. Nodes keep their identity while context is edited, and every edit fires single
+ * insert or remove event instead of rebuilding the whole tree.
+ *
+ * @author Andrii Borovyk
+ */
+public class ContextTreeModel extends DefaultTreeModel {
+
+    public ContextTreeModel(final ContextContainerEntity contextContainerEntity) {
+        super(new ContextTreeNode(contextContainerEntity));
+    }
+
+    /**
+     * Appends entity as the last child of given node.
+     *
+     * @return path of added node
+     */
+    public TreePath addContextEntity(ContextTreeNode parent, ContextContainerEntity contextContainerEntity) {
+        ContextTreeNode node = new ContextTreeNode(contextContainerEntity);
+        insertNodeInto(node, parent, parent.getChildCount());
+        return new TreePath(getPathToRoot(node));
+    }
+
+    public void removeContextNode(ContextTreeNode node) {
+        if (node.getParent() != null) {
+            removeNodeFromParent(node);
+        }
+    }
+}
@@ -17,12 +17,14 @@ package org.springirun.tool;
 
 import javax.swing.tree.MutableTreeNode;
 import javax.swing.tree.TreeNode;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Enumeration;
-import java.util.Iterator;
+import java.util.List;
 
 /**
- * Information about class functionality.
+ * Tree node of context entity. Nodes of child entities are created once, on first access, and kept together with
+ * parent node, so node identity stays stable for {@link ContextTreeModel} events.
  *
  * @author Andrii Borovyk
  */
@@ -30,34 +32,64 @@ public class ContextTreeNode implements MutableTreeNode {
 
     private ContextContainerEntity contextContainerEntity;
 
+    private ContextTreeNode parent;
+
+    private List<ContextTreeNode> children;
+
     public ContextTreeNode(final ContextContainerEntity contextContainerEntity) {
+        this(contextContainerEntity, null);
+    }
+
+    private ContextTreeNode(final ContextContainerEntity contextContainerEntity, final ContextTreeNode parent) {
         this.contextContainerEntity = contextContainerEntity;
+        this.parent = parent;
     }
 
     public ContextContainerEntity getContextContainerEntity() {
         return contextContainerEntity;
     }
 
+    private List<ContextTreeNode> getChildren() {
+        if (children == null) {
+            children = new ArrayList<ContextTreeNode>();
+            if (contextContainerEntity.getChildContextContainers() != null) {
+                for (ContextContainerEntity child : contextContainerEntity.getChildContextContainers()) {
+                    children.add(new ContextTreeNode(child, this));
+                }
+            }
+        }
+        return children;
+    }
+
+    private List<ContextContainerEntity> getChildEntities() {
+        if (contextContainerEntity.getChildContextContainers() == null) {
+            contextContainerEntity.setChildContextContainers(new ArrayList<ContextContainerEntity>());
+        }
+        return contextContainerEntity.getChildContextContainers();
+    }
+
     @Override
     public TreeNode getChildAt(final int i) {
-        return new ContextTreeNode(contextContainerEntity.getChildContextContainers().get(i));
+        return getChildren().get(i);
     }
 
     @Override
     public int getChildCount() {
+        if (children != null) {
+            return children.size();
+        }
         return contextContainerEntity.getChildContextContainers() == null ? 0 : contextContainerEntity
             .getChildContextContainers().size();
     }
 
     @Override
     public TreeNode getParent() {
-        return contextContainerEntity.isRoot() ? null : new ContextTreeNode(contextContainerEntity
-            .getParentContextContainerEntity());
+        return parent;
     }
 
     @Override
     public int getIndex(final TreeNode treeNode) {
-        return 0;
+        return getChildren().indexOf(treeNode);
     }
 
     @Override
@@ -67,12 +99,12 @@ public class ContextTreeNode implements MutableTreeNode {
 
     @Override
     public boolean isLeaf() {
-        return false;
+        return !contextContainerEntity.isRoot() && getChildCount() == 0;
     }
 
     @Override
     public Enumeration children() {
-        return Collections.enumeration(contextContainerEntity.getChildContextContainers());
+        return Collections.enumeration(getChildren());
     }
 
     @Override
@@ -82,43 +114,46 @@ public class ContextTreeNode implements MutableTreeNode {
 
     @Override
     public void insert(final MutableTreeNode mutableTreeNode, final int i) {
-        ContextContainerEntity entity = ((ContextTreeNode) mutableTreeNode).getContextContainerEntity();
-        contextContainerEntity.getChildContextContainers().add(entity);
-        entity.setParentContextContainerEntity(contextContainerEntity);
+        ContextTreeNode node = (ContextTreeNode) mutableTreeNode;
+        List<ContextTreeNode> childNodes = getChildren();
+        int index = i < 0 || i > childNodes.size() ? childNodes.size() : i;
+        childNodes.add(index, node);
+        getChildEntities().add(index, node.getContextContainerEntity());
+        node.parent = this;
+        node.getContextContainerEntity().setParentContextContainerEntity(contextContainerEntity);
     }
 
     @Override
     public void remove(final int i) {
-        contextContainerEntity.getChildContextContainers().remove(i);
+        ContextTreeNode node = getChildren().remove(i);
+        getChildEntities().remove(i);
+        node.parent = null;
+        node.getContextContainerEntity().setParentContextContainerEntity(null);
     }
 
     @Override
     public void remove(final MutableTreeNode mutableTreeNode) {
-        ContextContainerEntity entity = ((ContextTreeNode) mutableTreeNode).getContextContainerEntity();
-        for (Iterator<ContextContainerEntity> iterator = contextContainerEntity.getChildContextContainers().iterator();
-             iterator.hasNext(); ) {
-            if (iterator.next().equals(entity)) {
-                iterator.remove();
-            }
+        int index = getIndex(mutableTreeNode);
+        if (index >= 0) {
+            remove(index);
         }
     }
 
     @Override
     public void setUserObject(final Object o) {
         this.contextContainerEntity = (ContextContainerEntity) o;
+        this.children = null;
     }
 
     @Override
     public void removeFromParent() {
-        ContextContainerEntity parent = this.contextContainerEntity.getParentContextContainerEntity();
         if (parent != null) {
-            parent.getChildContextContainers().remove(contextContainerEntity);
-            contextContainerEntity.setParentContextContainerEntity(null);
+            parent.remove(this);
         }
     }
 
     @Override
     public void setParent(final MutableTreeNode mutableTreeNode) {
-
+        this.parent = (ContextTreeNode) mutableTreeNode;
     }
 }
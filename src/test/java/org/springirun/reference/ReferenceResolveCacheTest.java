@@ -0,0 +1,98 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.reference;
+
+import com.intellij.openapi.command.WriteCommandAction;
+import com.intellij.psi.PsiDocumentManager;
+import com.intellij.psi.PsiReference;
+import com.intellij.psi.util.PsiTreeUtil;
+import com.intellij.psi.xml.XmlAttributeValue;
+import com.intellij.testFramework.fixtures.LightJavaCodeInsightFixtureTestCase;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks that Springirun references are resolved through {@link com.intellij.psi.impl.source.resolve.ResolveCache},
+ * i.e. once per reference until PSI is modified.
+ *
+ * @author Andrii Borovyk
+ */
+public class ReferenceResolveCacheTest extends LightJavaCodeInsightFixtureTestCase {
+
+    private static final String CONTEXT = "<beans xmlns=\"http://www.springframework.org/schema/beans\">\n"
+        + "    <bean id=\"dao\" class=\"test.Dao\"/>\n"
+        + "    <bean id=\"service\" class=\"test.Service\" factory-method=\"create\" init-method=\"start\">\n"
+        + "        <property name=\"dao\" ref=\"dao\"/>\n"
+        + "    </bean>\n"
+        + "    <bean id=\"child\" parent=\"service\"/>\n"
+        + "    <alias name=\"service\" alias=\"serviceAlias\"/>\n"
+        + "</beans>\n";
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        myFixture.addClass("package test; public class Dao {}");
+        myFixture.addClass("package test; public class Service {\n"
+            + "    public static Service create() { return new Service(); }\n"
+            + "    public void start() {}\n"
+            + "    public void setDao(Dao dao) {}\n"
+            + "}");
+    }
+
+    public void testReferencesAreResolvedOncePerModification() {
+        myFixture.configureByText("context.xml", CONTEXT);
+        List<PsiReference> references = getSpringirunReferences();
+        assertFalse(references.isEmpty());
+
+        int initialCount = ResolveCount.get();
+        resolveAll(references);
+        assertEquals(references.size(), ResolveCount.get() - initialCount);
+
+        int resolvedCount = ResolveCount.get();
+        myFixture.doHighlighting();
+        myFixture.doHighlighting();
+        resolveAll(references);
+        assertEquals(resolvedCount, ResolveCount.get());
+
+        WriteCommandAction.runWriteCommandAction(getProject(), () -> {
+            myFixture.getEditor().getDocument().insertString(0, "<?xml version=\"1.0\"?>\n");
+            PsiDocumentManager.getInstance(getProject()).commitAllDocuments();
+        });
+        int modifiedCount = ResolveCount.get();
+        myFixture.doHighlighting();
+        resolveAll(getSpringirunReferences());
+        assertTrue(ResolveCount.get() > modifiedCount);
+    }
+
+    private List<PsiReference> getSpringirunReferences() {
+        List<PsiReference> references = new ArrayList<>();
+        for (XmlAttributeValue value : PsiTreeUtil.findChildrenOfType(myFixture.getFile(), XmlAttributeValue.class)) {
+            for (PsiReference reference : value.getReferences()) {
+                if (reference.getClass().getPackage() == ResolveCount.class.getPackage()) {
+                    references.add(reference);
+                }
+            }
+        }
+        return references;
+    }
+
+    private static void resolveAll(List<PsiReference> references) {
+        for (PsiReference reference : references) {
+            reference.resolve();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2012 Andrii Borovyk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springirun.tool;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.LocalFileSystem;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.pointers.VirtualFilePointer;
+import com.intellij.psi.PsiFile;
+import com.intellij.testFramework.HeavyPlatformTestCase;
+import com.intellij.testFramework.LeakHunter;
+import com.intellij.testFramework.PlatformTestUtil;
+import com.intellij.testFramework.VfsTestUtil;
+import org.jdom.Element;
+
+import java.io.File;
+
+/**
+ * Checks that context file pointers of loaded contexts keep neither files nor project alive once project is closed.
+ *
+ * @author Andrii Borovyk
+ */
+public class ContextPersistentStateComponentLeakTest extends HeavyPlatformTestCase {
+
+    private static final String CONTEXT_PATH = "applicationContext.xml";
+
+    public void testContextFilePointersDoNotRetainProject() {
+        File baseDir = new File(myProject.getBasePath());
+        assertTrue(baseDir.isDirectory() || baseDir.mkdirs());
+        VirtualFile projectDir = LocalFileSystem.getInstance().refreshAndFindFileByIoFile(baseDir);
+        assertNotNull(projectDir);
+        VirtualFile contextFile = VfsTestUtil.createFile(projectDir, CONTEXT_PATH,
+            "<beans xmlns=\"http://www.springframework.org/schema/beans\"/>");
+
+        ContextPersistentStateComponent component = ContextPersistentStateComponent.getInstance(myProject);
+        component.loadState(createState());
+        ContextContainer contextContainer = component.getContextContainer();
+        ContextContainerEntity configuration =
+            contextContainer.getContextContainerRootEntities().get(0).getChildContextContainers().get(0);
+        assertEquals(contextFile, component.getContextVirtualFile(configuration));
+        assertNotNull(component.getContextFile(configuration));
+        VirtualFilePointer contextFilePointer = configuration.getContextFilePointer();
+        assertNotNull(contextFilePointer);
+
+        Project project = myProject;
+        PlatformTestUtil.forceCloseProjectWithoutSaving(project);
+        myProject = null;
+
+        assertTrue(project.isDisposed());
+        assertFalse(contextFilePointer.isValid());
+        LeakHunter.checkLeak(contextContainer, PsiFile.class);
+        LeakHunter.checkLeak(contextContainer, Project.class);
+        LeakHunter.checkLeak(contextFilePointer, PsiFile.class);
+        LeakHunter.checkLeak(contextFilePointer, Project.class);
+        LeakHunter.checkLeak(component, PsiFile.class);
+    }
+
+    private static Element createState() {
+        Element configuration = new Element("ContextContainerEntity");
+        configuration.setAttribute("name", CONTEXT_PATH);
+        configuration.setAttribute("root", "false");
+        configuration.setAttribute("contextPath", CONTEXT_PATH);
+        Element root = new Element("ContextContainerEntity");
+        root.setAttribute("name", "application");
+        root.setAttribute("root", "true");
+        root.addContent(configuration);
+        Element state = new Element("ContextContainer");
+        state.addContent(root);
+        return state;
+    }
+}